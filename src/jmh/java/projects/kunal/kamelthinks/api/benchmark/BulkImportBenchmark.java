@@ -0,0 +1,84 @@
+package projects.kunal.kamelthinks.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import projects.kunal.kamelthinks.api.Application;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.service.BlogPostService;
+import projects.kunal.kamelthinks.api.service.PostImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second inserted through {@link PostImportService} (sequence ids, JDBC batching, chunked
+ * flush/clear) against one {@link BlogPostService#createPost} call per row, on an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private PostImportService importService;
+    private BlogPostService blogPostService;
+    private String body;
+    private long batch;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:import-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "search.rebuild-on-startup=false",
+                        "logging.level.root=WARN")
+                .run();
+        importService = context.getBean(PostImportService.class);
+        blogPostService = context.getBean(BlogPostService.class);
+        body = SampleContent.markdown(1000).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long bulkImport() throws Exception {
+        long prefix = batch++;
+        StringBuilder ndjson = new StringBuilder(ROWS * (body.length() + 64));
+        for (int i = 0; i < ROWS; i++) {
+            ndjson.append("{\"title\":\"Imported ").append(i).append("\",\"slug\":\"bulk-")
+                    .append(prefix).append('-').append(i).append("\",\"markdown\":\"").append(body).append("\"}\n");
+        }
+        return importService.importPosts(new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)))
+                .getImported();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long singleInserts() {
+        long prefix = batch++;
+        String markdown = SampleContent.markdown(1000);
+        long inserted = 0;
+        for (int i = 0; i < ROWS; i++) {
+            BlogPost post = new BlogPost();
+            post.setTitle("Single " + i);
+            post.setSlug("single-" + prefix + "-" + i);
+            post.setMarkdown(markdown);
+            blogPostService.createPost(post);
+            inserted++;
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,56 @@
+package projects.kunal.kamelthinks.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.service.PostJsonCache;
+import projects.kunal.kamelthinks.api.service.SerializedPost;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a {@link BlogPost} by markdown size, against a hit in {@link PostJsonCache}
+ * (which also pays for gzip on a miss).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int markdownChars;
+
+    private ObjectMapper objectMapper;
+    private PostJsonCache cache;
+    private BlogPost post;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cache = new PostJsonCache(objectMapper, 100_000_000L);
+        post = new BlogPost();
+        post.setId(1L);
+        post.setSlug("benchmark-post");
+        post.setTitle("Benchmark post");
+        post.setMarkdown(SampleContent.markdown(markdownChars));
+        post.setCreatedAt(LocalDateTime.now());
+        post.setUpdatedAt(LocalDateTime.now());
+        post.setVersion(3L);
+        cache.get(post);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public SerializedPost serializeCached() {
+        return cache.get(post);
+    }
+}
@@ -0,0 +1,51 @@
+package projects.kunal.kamelthinks.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import projects.kunal.kamelthinks.api.dto.RenderedPost;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.service.MarkdownRenderer;
+import projects.kunal.kamelthinks.api.service.RenderedPostCache;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render throughput of {@link MarkdownRenderer} on large documents, against a hit in {@link RenderedPostCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkdownRenderBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int markdownChars;
+
+    private MarkdownRenderer renderer;
+    private RenderedPostCache cache;
+    private BlogPost post;
+
+    @Setup
+    public void setUp() {
+        renderer = new MarkdownRenderer(false);
+        cache = new RenderedPostCache(renderer, 100_000_000L);
+        post = new BlogPost();
+        post.setSlug("benchmark-post");
+        post.setTitle("Benchmark post");
+        post.setMarkdown(SampleContent.markdown(markdownChars));
+        post.setUpdatedAt(LocalDateTime.now());
+        cache.get(post);
+    }
+
+    @Benchmark
+    public RenderedPost renderUncached() {
+        return renderer.render(post);
+    }
+
+    @Benchmark
+    public RenderedPost renderCached() {
+        return cache.get(post);
+    }
+}
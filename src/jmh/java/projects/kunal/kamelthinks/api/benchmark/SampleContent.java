@@ -0,0 +1,39 @@
+package projects.kunal.kamelthinks.api.benchmark;
+
+/**
+ * Synthetic but realistic post bodies: headings, paragraphs with inline markup, lists, code and tables.
+ */
+final class SampleContent {
+
+    private static final String SECTION = """
+            ## Section %d
+
+            Camels store **fat**, not water, in their humps. A paragraph with a [link](https://example.com/%d),
+            some `inline code` and _emphasis_ to give the inline parser something to do.
+
+            - first point about section %d
+            - second point with **bold** text
+            - third point
+
+            ```java
+            int humps = camel.getHumps(); // section %d
+            ```
+
+            | Species   | Humps |
+            |-----------|-------|
+            | Dromedary | 1     |
+            | Bactrian  | 2     |
+
+            """;
+
+    private SampleContent() {
+    }
+
+    static String markdown(int chars) {
+        StringBuilder sb = new StringBuilder(chars + SECTION.length()).append("# Benchmark post\n\n");
+        for (int i = 0; sb.length() < chars; i++) {
+            sb.append(SECTION.formatted(i, i, i, i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package projects.kunal.kamelthinks.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import projects.kunal.kamelthinks.api.search.InvertedIndex;
+import projects.kunal.kamelthinks.api.search.ScoredDoc;
+import projects.kunal.kamelthinks.api.search.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link InvertedIndex} over a synthetic corpus, with rare, common and multi-term queries.
+ * Run in sample mode to read off p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    public int posts;
+
+    @Param({"camel", "word17", "word3 word250 word900"})
+    public String query;
+
+    private InvertedIndex index;
+    private List<String> terms;
+
+    @Setup
+    public void setUp() {
+        index = new InvertedIndex(2.5f);
+        Random random = new Random(42);
+        for (int id = 1; id <= posts; id++) {
+            List<String> title = List.of("word" + random.nextInt(2000), "word" + random.nextInt(2000));
+            List<String> body = new ArrayList<>(300);
+            for (int i = 0; i < 300; i++) {
+                // Zipf-ish vocabulary: a few very common terms and a long tail
+                body.add(i % 10 == 0 ? "camel" : "word" + (int) Math.pow(random.nextInt(200), 1.6));
+            }
+            index.add(id, 1, title, body);
+        }
+        terms = Tokenizer.terms(query);
+    }
+
+    @Benchmark
+    public List<ScoredDoc> search() {
+        return index.search(terms, 10);
+    }
+}
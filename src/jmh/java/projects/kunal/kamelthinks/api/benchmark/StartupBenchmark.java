@@ -0,0 +1,111 @@
+package projects.kunal.kamelthinks.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the fast-start artifact, measured as the time from launching the JVM to the first
+ * {@code 200} from {@code GET /api/posts}. Compares a plain launch, the lazy-init profile alone, and the
+ * full fast-start mode (lazy init + AOT + CDS archive).
+ * <p>
+ * Needs {@code mvn -Pfaststart package -DskipTests} first; the app directory can be moved with
+ * {@code -jvmArgs -Dstartup.dir=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"plain", "lazy", "faststart"})
+    public String mode;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Path appDir;
+    private Path jar;
+    private Process process;
+
+    @Setup
+    public void setUp() throws IOException {
+        appDir = Path.of(System.getProperty("startup.dir", "target/faststart")).toAbsolutePath();
+        try (var files = Files.list(appDir)) {
+            jar = files.filter(f -> f.getFileName().toString().endsWith("-faststart.jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No fast-start jar in " + appDir
+                            + "; build it with mvn -Pfaststart package -DskipTests"));
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(javaExecutable()));
+        if (!mode.equals("plain")) {
+            command.add("-Dspring.profiles.active=faststart");
+        }
+        if (mode.equals("faststart")) {
+            command.add("-XX:SharedArchiveFile=application.jsa");
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar.toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:h2:mem:startup",
+                "--jwt.secret=startup-benchmark-only-not-a-real-secret-0123456789",
+                "--jwt.expiration=3600000"));
+        process = new ProcessBuilder(command)
+                .directory(appDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/posts")).build();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    private static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString() + (File.separatorChar == '\\' ? ".exe" : "");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
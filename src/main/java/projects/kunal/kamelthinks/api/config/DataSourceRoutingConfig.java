@@ -0,0 +1,79 @@
+package projects.kunal.kamelthinks.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import projects.kunal.kamelthinks.api.datasource.ReadWriteRoutingDataSource;
+import projects.kunal.kamelthinks.api.datasource.ReplicaStickinessFilter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary/replica routing, switched on by setting {@code datasource.replica.url}. Read-only transactions
+ * go to the replica, everything else to the primary configured under {@code spring.datasource}. For
+ * {@code datasource.routing.stickiness} after a write, the writing client (by cookie) and refills of the
+ * written post's cache entry read from the primary.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.url")
+public class DataSourceRoutingConfig {
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:}") String username,
+                                              @Value("${datasource.replica.password:}") String password,
+                                              @Value("${datasource.replica.connection-timeout:PT0.5S}") Duration connectionTimeout) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        // Fail over to the primary quickly rather than holding the request for Hikari's default 30 s
+        replica.setConnectionTimeout(connectionTimeout.toMillis());
+        // Do not fail startup when the replica is down; the router falls back to the primary
+        replica.setInitializationFailTimeout(-1);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${datasource.replica.retry-after:PT30S}") Duration replicaRetry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicaRetry));
+    }
+
+    @Bean
+    public ReplicaStickinessFilter replicaStickinessFilter(@Value("${datasource.routing.stickiness:PT5S}") Duration stickiness) {
+        return new ReplicaStickinessFilter(stickiness);
+    }
+
+    // Let Hibernate take the connection only when it runs SQL, so the lazy proxy can see the read-only flag first
+    @Bean
+    public HibernatePropertiesCustomizer connectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
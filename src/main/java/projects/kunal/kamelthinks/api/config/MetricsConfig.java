@@ -0,0 +1,20 @@
+package projects.kunal.kamelthinks.api.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables {@code @Timed} on Spring beans (e.g. {@code BlogPostService}). Repository calls are timed by
+ * Boot itself as {@code spring.data.repository.invocations}; histogram buckets are switched on in
+ * {@code application.properties}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
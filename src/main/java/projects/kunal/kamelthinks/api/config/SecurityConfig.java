@@ -1,22 +1,33 @@
 package projects.kunal.kamelthinks.api.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import projects.kunal.kamelthinks.api.repository.UserRepository;
+import projects.kunal.kamelthinks.api.security.CachingUserDetailsService;
 import projects.kunal.kamelthinks.api.security.JwtFilter;
+import projects.kunal.kamelthinks.api.security.RateLimitFilter;
+import projects.kunal.kamelthinks.api.security.TimedPasswordEncoder;
 
-import java.util.ArrayList; // Assuming this is needed for User
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -28,32 +39,42 @@ public class SecurityConfig {
     }
 
     @Bean
-    public UserDetailsService userDetailsService(UserRepository userRepository) {
-        return username -> userRepository.findByUsername(username)
-                .map(user -> new org.springframework.security.core.userdetails.User(
-                        user.getUsername(),
-                        user.getPassword(),
-                        new ArrayList<>())) // Replace with actual roles/authorities if you have them
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    public CachingUserDetailsService userDetailsService(UserRepository userRepository,
+                                                        @Value("${security.user-cache.ttl:PT5M}") Duration ttl,
+                                                        @Value("${security.user-cache.max-size:10000}") long maxSize) {
+        return new CachingUserDetailsService(userRepository, ttl, maxSize);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtFilter jwtFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtFilter jwtFilter, RateLimitFilter rateLimitFilter,
+                                           @Value("${security.actuator.allowed-networks:127.0.0.1/32,::1/128}") List<String> actuatorNetworks) throws Exception {
         http
                 .csrf(csrf -> csrf.disable()) // <-- MOST LIKELY FIX FOR 403 ON POST
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // JWTs are stateless
                 .authorizeHttpRequests(requests -> requests
+                        // Health is for load balancers; metrics and the Prometheus scrape only from the monitoring network
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).access(fromNetworks(actuatorNetworks))
                         .requestMatchers("/api/auth/**").permitAll() // <-- Ensure this allows /api/auth/login
+                        // Uploads write to local disk: only signed-in users, reads stay public
+                        .requestMatchers(HttpMethod.POST, "/api/media", "/api/media/").authenticated()
                         .requestMatchers("/api/posts/**").permitAll() // <-- If blog posts are also public (as per your tests)
                         // .anyRequest().authenticated() // For any other endpoint, require authentication
                         .anyRequest().permitAll() // If all your current endpoints are public for now
                 )
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class); // Add your JWT filter
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class) // Add your JWT filter
+                .addFilterBefore(rateLimitFilter, JwtFilter.class); // Reject over-limit clients before any token or DB work
         return http.build();
     }
 
+    private static AuthorizationManager<RequestAuthorizationContext> fromNetworks(List<String> networks) {
+        List<IpAddressMatcher> matchers = networks.stream().map(String::trim).map(IpAddressMatcher::new).toList();
+        return (authentication, context) -> new AuthorizationDecision(
+                matchers.stream().anyMatch(matcher -> matcher.matches(context.getRequest())));
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry registry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), registry);
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package projects.kunal.kamelthinks.api.controller;
 
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,9 +14,19 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import projects.kunal.kamelthinks.api.dto.AuthRequest;
 import projects.kunal.kamelthinks.api.dto.AuthResponse;
+import projects.kunal.kamelthinks.api.dto.ChangePasswordRequest;
 import projects.kunal.kamelthinks.api.model.User;
 import projects.kunal.kamelthinks.api.repository.UserRepository;
 import projects.kunal.kamelthinks.api.security.JwtUtil;
+import projects.kunal.kamelthinks.api.security.LoginThrottle;
+import projects.kunal.kamelthinks.api.security.PasswordHashingExecutor;
+import projects.kunal.kamelthinks.api.security.RateLimiter;
+import projects.kunal.kamelthinks.api.security.TokenRevocationService;
+import projects.kunal.kamelthinks.api.security.UserCredentialsChangedEvent;
+import projects.kunal.kamelthinks.api.security.VerifiedToken;
+
+import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -31,6 +44,18 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashing;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private TokenRevocationService tokenRevocation;
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody AuthRequest request) {
         if (userRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -39,17 +64,56 @@ public class AuthController {
 
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashing.run(() -> passwordEncoder.encode(request.getPassword())));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserCredentialsChangedEvent(user.getUsername()));
         return ResponseEntity.ok("User registered successfully");
     }
 
+    @PostMapping("/password")
+    public ResponseEntity<?> changePassword(@RequestBody ChangePasswordRequest request) {
+        // Verifies the current password, so it shares the login throttle: otherwise it is an unthrottled guessing oracle
+        long wait = loginThrottle.tryAcquire(request.getUsername());
+        if (wait > 0) {
+            return tooManyAttempts(wait);
+        }
+        try {
+            passwordHashing.run(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            ));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        } catch (RejectedExecutionException e) {
+            loginThrottle.release(request.getUsername());
+            return hashingBusy();
+        }
+        loginThrottle.recordSuccess(request.getUsername());
+
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        user.setPassword(passwordHashing.run(() -> passwordEncoder.encode(request.getNewPassword())));
+        userRepository.save(user);
+        // Drop the cached hash so the old password stops working immediately on this instance
+        eventPublisher.publishEvent(new UserCredentialsChangedEvent(user.getUsername()));
+        // Tokens handed out under the old password stop working too
+        tokenRevocation.revokeAllIssuedBefore(user.getUsername(), Instant.now());
+        return ResponseEntity.ok("Password changed successfully");
+    }
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest request) {
+        // Taken before BCrypt and kept on failure: concurrent guesses cannot all pass a check made earlier
+        long wait = loginThrottle.tryAcquire(request.getUsername());
+        if (wait > 0) {
+            return tooManyAttempts(wait);
+        }
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            // BCrypt verification runs on the bounded hashing pool, never on the request thread
+            Authentication authentication = passwordHashing.run(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
+            ));
+
+            loginThrottle.recordSuccess(request.getUsername());
 
             // If authentication is successful, generate JWT
             String token = jwtUtil.generateToken(request.getUsername());
@@ -61,6 +125,9 @@ public class AuthController {
             return ResponseEntity.ok(authResponse); // Returns HTTP 200 OK with AuthResponse JSON
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        } catch (RejectedExecutionException e) {
+            loginThrottle.release(request.getUsername());
+            return hashingBusy();
         } catch (Exception e) {
             // Catch any other unexpected exceptions and log them
             e.printStackTrace(); // Log the full stack trace for unexpected errors
@@ -68,10 +135,65 @@ public class AuthController {
         }
     }
 
+    private static ResponseEntity<?> tooManyAttempts(long waitNanos) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(RateLimiter.retryAfterSeconds(waitNanos)))
+                .body("Too many failed login attempts, try again later");
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> hashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many authentication requests, try again shortly");
+    }
+
+    /**
+     * Revokes the presented token; it is rejected from now on until it would have expired.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader) {
+        VerifiedToken token = verifiedBearer(authHeader);
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+        }
+        tokenRevocation.revoke(token);
+        return ResponseEntity.ok("Logged out");
+    }
+
+    /**
+     * Revokes every token issued to the caller so far, on all devices, including the presented one.
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@RequestHeader("Authorization") String authHeader) {
+        VerifiedToken token = verifiedBearer(authHeader);
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
+        }
+        tokenRevocation.revokeAllIssuedBefore(token.getSubject(), Instant.now());
+        return ResponseEntity.ok("Logged out everywhere");
+    }
+
     @GetMapping("/validate")
     public ResponseEntity<?> validate(@RequestHeader("Authorization") String authHeader) {
         String token = authHeader.replace("Bearer ", "");
         String username = jwtUtil.getUsernameFromToken(token);
+        if (tokenRevocation.isRevoked(jwtUtil.verifyToken(token))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Token has been revoked");
+        }
         return ResponseEntity.ok("User "+username+" is valid");
     }
+
+    // Null when the header is missing, malformed, badly signed, expired or already revoked
+    private VerifiedToken verifiedBearer(String authHeader) {
+        if (!authHeader.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            VerifiedToken token = jwtUtil.verifyToken(authHeader.substring(7));
+            return tokenRevocation.isRevoked(token) ? null : token;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
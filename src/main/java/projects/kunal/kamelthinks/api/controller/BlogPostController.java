@@ -1,41 +1,213 @@
 package projects.kunal.kamelthinks.api.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.dto.PostPatch;
+import projects.kunal.kamelthinks.api.dto.PostVersion;
+import projects.kunal.kamelthinks.api.dto.PostViews;
+import projects.kunal.kamelthinks.api.dto.RenderedPost;
 import projects.kunal.kamelthinks.api.model.BlogPost;
 import projects.kunal.kamelthinks.api.service.BlogPostService;
+import projects.kunal.kamelthinks.api.service.PostExportService;
+import projects.kunal.kamelthinks.api.service.PostImportService;
+import projects.kunal.kamelthinks.api.service.PostJsonCache;
+import projects.kunal.kamelthinks.api.service.PostVersionConflictException;
+import projects.kunal.kamelthinks.api.service.SerializedPost;
+import projects.kunal.kamelthinks.api.service.ViewCounter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/posts")
 @CrossOrigin(origins = "*")
 public class BlogPostController {
 
+    private static final Pattern STRONG_ETAG = Pattern.compile("\"\\d+-v(\\d+)\"");
+
     @Autowired
     private BlogPostService blogPostService;
 
+    @Autowired
+    private PostJsonCache postJsonCache;
+
+    @Autowired
+    private PostExportService postExportService;
+
+    @Autowired
+    private PostImportService postImportService;
+
+    @Autowired
+    private ViewCounter viewCounter;
+
     @PostMapping
-    public ResponseEntity<BlogPost> create(@RequestBody BlogPost post) {
-        BlogPost created = blogPostService.createPost(post);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    public ResponseEntity<?> create(@RequestBody BlogPost post) {
+        try {
+            BlogPost created = blogPostService.createPost(post);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    /**
+     * Bulk-creates posts from an NDJSON stream or a JSON array. Rows with a missing, reserved or duplicate slug are
+     * skipped and listed in the result; the rest are imported.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> importPosts(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(postImportService.importPosts(body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Full posts, markdown included, in id order: at most {@code limit} of them after {@code afterId}. Pass the
+     * last id of a page as {@code afterId} to get the next one.
+     *
+     * @deprecated use {@code /summaries}, which leaves the bodies out; kept bounded for existing clients
+     */
+    @Deprecated
     @GetMapping
-    public List<BlogPost> getAll() {
-        return blogPostService.getAllPosts();
+    public ResponseEntity<List<BlogPost>> getAll(@RequestParam(defaultValue = "0") long afterId,
+                                                 @RequestParam(defaultValue = "20") int limit,
+                                                 WebRequest request) {
+        if (isListNotModified(request)) {
+            return null; // 304 already set on the response
+        }
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/posts/summaries>; rel=\"successor-version\"")
+                .body(blogPostService.getPosts(afterId, limit));
+    }
+
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getSummaries(@RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int limit,
+                                          WebRequest request) {
+        if (isListNotModified(request)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(blogPostService.getPostSummaries(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+    }
+
+    /**
+     * Streams posts as NDJSON for backups and syncs. With {@code since}, only posts updated after that
+     * instant are included. Gzip-compressed on the fly when the client accepts it.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, 8192);
+                postExportService.export(since, gzip);
+                gzip.finish();
+            });
+        }
+        return response.body(out -> postExportService.export(since, out));
+    }
+
+    @GetMapping("/popular")
+    public List<PostViews> getPopular(@RequestParam(defaultValue = "10") int limit) {
+        return viewCounter.top(limit);
     }
 
     @GetMapping("/{slug}")
-    public BlogPost getOne(@PathVariable String slug) {
-        return blogPostService.getPost(slug);
+    public ResponseEntity<byte[]> getOne(@PathVariable String slug,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                         WebRequest request) {
+        // Revalidations are answered from (id, updatedAt) alone; the markdown body is only read on a 200
+        Optional<PostVersion> version = blogPostService.getPostVersion(slug);
+        if (version.isPresent()
+                && request.checkNotModified(etag(version.get()), epochMillis(version.get().getUpdatedAt()))) {
+            viewCounter.record(version.get().getId());
+            return null;
+        }
+
+        BlogPost post = blogPostService.getPost(slug);
+        viewCounter.record(post.getId());
+        // Pre-serialized bytes for this post version: no Jackson or gzip work on a cache hit
+        SerializedPost serialized = postJsonCache.get(post);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (serialized.getGzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(serialized.getGzip().length)
+                    .body(serialized.getGzip());
+        }
+        return response.contentLength(serialized.getJson().length).body(serialized.getJson());
     }
 
+    @GetMapping("/{slug}/rendered")
+    public RenderedPost getRendered(@PathVariable String slug, WebRequest request) {
+        Optional<PostVersion> version = blogPostService.getPostVersion(slug);
+        if (version.isPresent()
+                && request.checkNotModified(etag(version.get(), "html"), epochMillis(version.get().getUpdatedAt()))) {
+            return null;
+        }
+        return blogPostService.getRenderedPost(slug);
+    }
+
+    /**
+     * Full update. Send the post's ETag in {@code If-Match} to have the write rejected with 412 when
+     * someone else has changed the post since it was read.
+     */
     @PutMapping("/{slug}")
-    public BlogPost update(@PathVariable String slug, @RequestBody BlogPost post) {
-        return blogPostService.updatePost(slug, post);
+    public ResponseEntity<?> update(@PathVariable String slug, @RequestBody BlogPost post,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        try {
+            BlogPost updated = ifMatch == null
+                    ? blogPostService.updatePost(slug, post)
+                    : blogPostService.updatePost(slug, post, expectedVersion(ifMatch));
+            return withEtag(updated);
+        } catch (PostVersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Partial update: only the fields present in the body are written, in one conditional UPDATE.
+     */
+    @PatchMapping(value = "/{slug}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<?> patch(@PathVariable String slug, @RequestBody PostPatch patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (patch.getTitle() == null && patch.getMarkdown() == null) {
+            return ResponseEntity.badRequest().body("Nothing to update");
+        }
+        try {
+            return withEtag(blogPostService.patchPost(slug, patch, ifMatch == null ? null : expectedVersion(ifMatch)));
+        } catch (PostVersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{slug}")
@@ -43,4 +215,59 @@ public class BlogPostController {
         blogPostService.deletePost(slug);
         return ResponseEntity.noContent().build();
     }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private boolean isListNotModified(WebRequest request) {
+        PostListVersion version = blogPostService.getListVersion();
+        if (version == null || version.getCount() == 0) {
+            return false;
+        }
+        String etag = "\"list-" + version.getCount() + "-" + version.getMaxId() + "-"
+                + epochMillis(version.getLastUpdatedAt()) + "\"";
+        return request.checkNotModified(etag, epochMillis(version.getLastUpdatedAt()));
+    }
+
+    private static ResponseEntity<BlogPost> withEtag(BlogPost post) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (post.getVersion() != null) {
+            response.eTag(etag(new PostVersion(post.getId(), post.getUpdatedAt(), post.getVersion())));
+        }
+        return response.body(post);
+    }
+
+    // The version from an If-Match ETag; "*" means any current version. A tag we did not issue can never match.
+    static Long expectedVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        Matcher matcher = STRONG_ETAG.matcher(tag);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : Long.valueOf(-1);
+    }
+
+    // Versioned validators: bumped by every write, including partial updates that keep updatedAt's millisecond
+    static String etag(PostVersion version) {
+        return "\"" + version.getId() + "-v" + version.getVersion() + "\"";
+    }
+
+    // Each representation of a post needs its own validator
+    static String etag(PostVersion version, String representation) {
+        return "\"" + version.getId() + "-v" + version.getVersion() + "-" + representation + "\"";
+    }
+
+    static long epochMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
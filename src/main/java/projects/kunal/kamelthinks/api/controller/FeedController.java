@@ -0,0 +1,73 @@
+package projects.kunal.kamelthinks.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import projects.kunal.kamelthinks.api.service.FeedService;
+import projects.kunal.kamelthinks.api.service.RenderedDocument;
+
+import java.util.Optional;
+
+/**
+ * Feeds and sitemaps for readers and crawlers. Bodies are pre-rendered by {@link FeedService}: a poll is
+ * answered with a 304 or a copy of the stored (optionally gzipped) bytes, never with a query.
+ */
+@RestController
+@CrossOrigin(origins = "*")
+public class FeedController {
+
+    private static final MediaType RSS = MediaType.parseMediaType("application/rss+xml;charset=UTF-8");
+    private static final MediaType ATOM = MediaType.parseMediaType("application/atom+xml;charset=UTF-8");
+    private static final MediaType XML = MediaType.parseMediaType("application/xml;charset=UTF-8");
+
+    @Autowired
+    private FeedService feedService;
+
+    @GetMapping("/feed.xml")
+    public ResponseEntity<byte[]> rss(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                      WebRequest request) {
+        return serve(feedService.getRss(), RSS, acceptEncoding, request);
+    }
+
+    @GetMapping("/atom.xml")
+    public ResponseEntity<byte[]> atom(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       WebRequest request) {
+        return serve(feedService.getAtom(), ATOM, acceptEncoding, request);
+    }
+
+    @GetMapping("/sitemap.xml")
+    public ResponseEntity<byte[]> sitemap(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          WebRequest request) {
+        return serve(feedService.getSitemap(), XML, acceptEncoding, request);
+    }
+
+    @GetMapping("/sitemap-{number:\\d+}.xml")
+    public ResponseEntity<byte[]> sitemapShard(@PathVariable int number,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                               WebRequest request) {
+        Optional<RenderedDocument> shard = feedService.getSitemapShard(number);
+        if (shard.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(shard.get(), XML, acceptEncoding, request);
+    }
+
+    private static ResponseEntity<byte[]> serve(RenderedDocument document, MediaType type, String acceptEncoding,
+                                                WebRequest request) {
+        if (request.checkNotModified(document.getEtag(), document.getLastModified())) {
+            return null; // 304 already set on the response
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(type)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (document.getGzip() != null && BlogPostController.acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(document.getGzip().length)
+                    .body(document.getGzip());
+        }
+        return response.contentLength(document.getBody().length).body(document.getBody());
+    }
+}
@@ -0,0 +1,164 @@
+package projects.kunal.kamelthinks.api.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import projects.kunal.kamelthinks.api.dto.MediaInfo;
+import projects.kunal.kamelthinks.api.model.MediaObject;
+import projects.kunal.kamelthinks.api.service.MediaStore;
+import projects.kunal.kamelthinks.api.service.MediaTooLargeException;
+import projects.kunal.kamelthinks.api.service.StoredMedia;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/media")
+@CrossOrigin(origins = "*")
+public class MediaController {
+
+    // Content-addressed: the bytes behind a URL can never change
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    // Tomcat's sendfile hand-off: with these request attributes set and no body written, the connector
+    // sends the file region itself, from the page cache straight to the socket
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private MediaStore mediaStore;
+
+    @Value("${media.public-path:/api/media/}")
+    private String publicPath;
+
+    /**
+     * Stores the request body as-is; its {@code Content-Type} must be one of the allowed image types.
+     * Uploading content that is already stored returns the existing object with 200 instead of 201.
+     */
+    @PostMapping
+    public ResponseEntity<?> upload(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                    InputStream body) throws IOException {
+        if (!mediaStore.isAllowed(contentType)) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body("Unsupported media type: " + contentType);
+        }
+        try {
+            StoredMedia stored = mediaStore.store(body, contentType);
+            MediaObject media = stored.media();
+            MediaInfo info = new MediaInfo(media.getHash(), publicPath + media.getHash(), media.getContentType(), media.getSize());
+            return stored.created()
+                    ? ResponseEntity.created(URI.create(info.getUrl())).body(info)
+                    : ResponseEntity.ok(info);
+        } catch (MediaTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Serves the stored bytes with {@code Range} support (a single range; multi-range requests get the
+     * whole file). The body is never copied through the JVM heap: it goes out through sendfile when the
+     * connector supports it, and through {@link FileChannel#transferTo} otherwise.
+     */
+    @GetMapping("/{hash}")
+    public void download(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Optional<MediaObject> found = mediaStore.find(hash);
+        Path path = found.map(media -> mediaStore.path(media.getHash())).orElse(null);
+        if (path == null || !Files.isRegularFile(path)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        MediaObject media = found.get();
+        String etag = "\"" + media.getHash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long size = Files.size(path);
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                if (matcher.group(1).isEmpty()) {
+                    // Suffix range: the last n bytes
+                    start = Math.max(0, size - parse(matcher.group(2)));
+                } else {
+                    start = parse(matcher.group(1));
+                    end = matcher.group(2).isEmpty() ? size : Math.min(size, parse(matcher.group(2)) + 1);
+                }
+                if (start >= size || start >= end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+        }
+
+        response.setContentType(media.getContentType());
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += file.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // Range bounds beyond a long are as unsatisfiable as any other bound past the end
+    private static long parse(String number) {
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package projects.kunal.kamelthinks.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import projects.kunal.kamelthinks.api.service.PostRevisionService;
+
+@RestController
+@RequestMapping("/api/posts/{slug}/revisions")
+@CrossOrigin(origins = "*")
+public class RevisionController {
+
+    @Autowired
+    private PostRevisionService revisionService;
+
+    @GetMapping
+    public ResponseEntity<?> list(@PathVariable String slug) {
+        return revisionService.list(slug)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Post not found"));
+    }
+
+    @GetMapping("/{revision}")
+    public ResponseEntity<?> get(@PathVariable String slug, @PathVariable int revision) {
+        return revisionService.get(slug, revision)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Revision not found"));
+    }
+
+    // Unified diff of the markdown, e.g. /api/posts/my-post/revisions/diff?from=3&to=7
+    @GetMapping("/diff")
+    public ResponseEntity<String> diff(@PathVariable String slug, @RequestParam int from, @RequestParam int to) {
+        return revisionService.diff(slug, from, to)
+                .map(diff -> ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(diff))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Revision not found"));
+    }
+}
@@ -0,0 +1,23 @@
+package projects.kunal.kamelthinks.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import projects.kunal.kamelthinks.api.dto.SearchResult;
+import projects.kunal.kamelthinks.api.service.PostSearchService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/posts/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @GetMapping
+    public List<SearchResult> search(@RequestParam("q") String query,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        return postSearchService.search(query, limit);
+    }
+}
@@ -0,0 +1,37 @@
+package projects.kunal.kamelthinks.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import projects.kunal.kamelthinks.api.dto.TagCount;
+import projects.kunal.kamelthinks.api.service.TagService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/posts/tags")
+@CrossOrigin(origins = "*")
+public class TagController {
+
+    @Autowired
+    private TagService tagService;
+
+    @GetMapping
+    public List<TagCount> getTagCloud(@RequestParam(defaultValue = "50") int limit) {
+        return tagService.getTagCloud(limit);
+    }
+
+    /**
+     * Newest-first summaries of the posts with this tag; pass the previous page's {@code nextCursor} to continue.
+     */
+    @GetMapping("/{tag}")
+    public ResponseEntity<?> getPostsByTag(@PathVariable String tag,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(tagService.getPostsByTag(tag, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package projects.kunal.kamelthinks.api.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the primary.
+ * Reads stay on the primary while {@link RoutingContext} pins the current thread: for a client that has
+ * just written ({@link ReplicaStickinessFilter}) or a cache refilling a post that has just changed. Nobody
+ * else's reads are affected by a write. If the replica cannot hand out a connection, reads fall back to the
+ * primary and the replica is left alone for {@code replicaRetry}.
+ * <p>
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the read-only flag of a transaction is only
+ * known once the transaction has started, after the connection would normally have been fetched.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long replicaRetryNanos;
+
+    private volatile long replicaDownUntilNanos;
+    private volatile boolean replicaDown;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicaRetry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaRetryNanos = replicaRetry.toNanos();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    protected Target determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || RoutingContext.isPrimaryForced()) {
+            return Target.PRIMARY;
+        }
+        if (replicaDown && System.nanoTime() - replicaDownUntilNanos < 0) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    private void markReplicaDown(SQLException e) {
+        if (!replicaDown || System.nanoTime() - replicaDownUntilNanos >= 0) {
+            log.warn("Replica unavailable, reading from the primary for the next {} s", replicaRetryNanos / 1_000_000_000, e);
+        }
+        replicaDownUntilNanos = System.nanoTime() + replicaRetryNanos;
+        replicaDown = true;
+    }
+}
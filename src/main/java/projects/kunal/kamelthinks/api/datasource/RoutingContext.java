@@ -0,0 +1,42 @@
+package projects.kunal.kamelthinks.api.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that pins every connection to the primary, e.g. for a client that has just written
+ * and must read its own writes. Set and cleared by {@link ReplicaStickinessFilter}.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    /**
+     * Runs {@code work} pinned to the primary, leaving an outer pin in place.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (isPrimaryForced()) {
+            return work.get();
+        }
+        forcePrimary();
+        try {
+            return work.get();
+        } finally {
+            clear();
+        }
+    }
+}
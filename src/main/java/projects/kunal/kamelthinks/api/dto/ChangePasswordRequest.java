@@ -0,0 +1,14 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePasswordRequest {
+    private String username;
+    private String password;
+    private String newPassword;
+}
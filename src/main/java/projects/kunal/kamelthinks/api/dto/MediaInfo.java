@@ -0,0 +1,15 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaInfo {
+    private String hash;
+    private String url;
+    private String contentType;
+    private long size;
+}
@@ -0,0 +1,17 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row the import skipped. {@code row} is 1-based in input order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostImportError {
+    private long row;
+    private String slug;
+    private String reason;
+}
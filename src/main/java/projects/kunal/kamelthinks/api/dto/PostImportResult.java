@@ -0,0 +1,20 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most the first few hundred rejected rows;
+ * {@code rejected} is the full count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostImportResult {
+    private long imported;
+    private long rejected;
+    private List<PostImportError> errors;
+}
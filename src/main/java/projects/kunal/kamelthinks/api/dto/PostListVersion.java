@@ -0,0 +1,19 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate fingerprint of the whole post table: changes whenever a post is created, updated or deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostListVersion {
+    private long count;
+    private Long maxId;
+    private LocalDateTime lastUpdatedAt;
+}
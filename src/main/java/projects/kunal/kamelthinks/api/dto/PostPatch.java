@@ -0,0 +1,16 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of a post: null fields are left as they are.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPatch {
+    private String title;
+    private String markdown;
+}
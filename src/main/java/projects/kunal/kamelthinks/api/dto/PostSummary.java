@@ -0,0 +1,22 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the post list needs from a BlogPost: everything except the markdown body.
+ * Built directly by JPQL constructor expressions so the Lob column is never read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSummary {
+    private Long id;
+    private String title;
+    private String slug;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just enough of a post to answer a conditional request without loading its body.
+ * {@code version} is the optimistic-lock counter and backs the post's ETag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostVersion {
+    private Long id;
+    private LocalDateTime updatedAt;
+    private Long version;
+}
@@ -0,0 +1,15 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostViews {
+    private Long id;
+    private String slug;
+    private String title;
+    private long views;
+}
@@ -0,0 +1,24 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Server-rendered form of a post: HTML body, table of contents and a plain-text excerpt.
+ * {@code updatedAt} identifies the post version it was rendered from.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RenderedPost {
+    private String slug;
+    private String title;
+    private String html;
+    private List<TocEntry> toc;
+    private String excerpt;
+    private LocalDateTime updatedAt;
+}
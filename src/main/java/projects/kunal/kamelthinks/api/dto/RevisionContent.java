@@ -0,0 +1,17 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionContent {
+    private int revision;
+    private String title;
+    private String markdown;
+    private LocalDateTime createdAt;
+}
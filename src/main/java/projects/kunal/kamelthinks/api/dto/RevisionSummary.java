@@ -0,0 +1,22 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import projects.kunal.kamelthinks.api.model.PostRevision;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revision without its content.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionSummary {
+    private int revision;
+    private PostRevision.Kind kind;
+    private String title;
+    private int markdownLength;
+    private LocalDateTime createdAt;
+}
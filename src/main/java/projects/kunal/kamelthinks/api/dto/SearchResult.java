@@ -0,0 +1,21 @@
+package projects.kunal.kamelthinks.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One search hit. {@code title} and {@code snippet} are HTML with matches wrapped in {@code <mark>}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResult {
+    private String slug;
+    private String title;
+    private String snippet;
+    private float score;
+    private LocalDateTime updatedAt;
+}
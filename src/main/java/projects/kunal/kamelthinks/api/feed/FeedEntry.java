@@ -0,0 +1,9 @@
+package projects.kunal.kamelthinks.api.feed;
+
+import java.time.LocalDateTime;
+
+/**
+ * One post as the RSS and Atom feeds show it. {@code summary} is a plain-text excerpt, never the full body.
+ */
+public record FeedEntry(long id, String slug, String title, String summary, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,199 @@
+package projects.kunal.kamelthinks.api.feed;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Renders RSS 2.0, Atom 1.0 and sitemap documents as UTF-8 bytes. Stateless; links are built from the
+ * public site URL, as {@code siteUrl + postPath + slug}.
+ */
+public class FeedWriter {
+
+    private static final XMLOutputFactory XML = XMLOutputFactory.newFactory();
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final Pattern MARKUP = Pattern.compile("[#*_`>\\[\\]!]|\\(https?://[^)]*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String siteUrl;
+    private final String postPath;
+    private final String title;
+    private final ZoneId zone;
+
+    public FeedWriter(String siteUrl, String postPath, String title, ZoneId zone) {
+        this.siteUrl = siteUrl.endsWith("/") ? siteUrl.substring(0, siteUrl.length() - 1) : siteUrl;
+        this.postPath = postPath;
+        this.title = title;
+        this.zone = zone;
+    }
+
+    /**
+     * The first {@code length} characters of the markdown with the common markup stripped, cut at a word boundary.
+     */
+    public static String excerpt(String markdown, int length) {
+        if (markdown == null) {
+            return "";
+        }
+        String text = WHITESPACE.matcher(MARKUP.matcher(markdown).replaceAll("")).replaceAll(" ").trim();
+        if (text.length() <= length) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', length);
+        return text.substring(0, cut > length / 2 ? cut : length) + "…";
+    }
+
+    public String postUrl(String slug) {
+        return siteUrl + postPath + slug;
+    }
+
+    public String siteUrl() {
+        return siteUrl;
+    }
+
+    /** Entries newest first. */
+    public byte[] rss(List<FeedEntry> entries) {
+        return write(xml -> {
+            xml.setPrefix("atom", ATOM_NS);
+            xml.writeStartElement("rss");
+            xml.writeAttribute("version", "2.0");
+            xml.writeNamespace("atom", ATOM_NS);
+            xml.writeStartElement("channel");
+            element(xml, "title", title);
+            element(xml, "link", siteUrl + "/");
+            element(xml, "description", title);
+            xml.writeEmptyElement(ATOM_NS, "link");
+            xml.writeAttribute("href", siteUrl + "/feed.xml");
+            xml.writeAttribute("rel", "self");
+            xml.writeAttribute("type", "application/rss+xml");
+            if (!entries.isEmpty()) {
+                element(xml, "lastBuildDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(latest(entries).atZone(zone)));
+            }
+            for (FeedEntry entry : entries) {
+                xml.writeStartElement("item");
+                element(xml, "title", entry.title());
+                element(xml, "link", postUrl(entry.slug()));
+                xml.writeStartElement("guid");
+                xml.writeAttribute("isPermaLink", "true");
+                xml.writeCharacters(postUrl(entry.slug()));
+                xml.writeEndElement();
+                element(xml, "pubDate", DateTimeFormatter.RFC_1123_DATE_TIME.format(entry.createdAt().atZone(zone)));
+                element(xml, "description", entry.summary());
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndElement();
+        });
+    }
+
+    /** Entries newest first. */
+    public byte[] atom(List<FeedEntry> entries) {
+        return write(xml -> {
+            xml.setDefaultNamespace(ATOM_NS);
+            xml.writeStartElement(ATOM_NS, "feed");
+            xml.writeDefaultNamespace(ATOM_NS);
+            element(xml, "id", siteUrl + "/");
+            element(xml, "title", title);
+            element(xml, "updated", timestamp(entries.isEmpty() ? LocalDateTime.of(1970, 1, 1, 0, 0) : latest(entries)));
+            link(xml, siteUrl + "/", "alternate");
+            link(xml, siteUrl + "/atom.xml", "self");
+            for (FeedEntry entry : entries) {
+                xml.writeStartElement(ATOM_NS, "entry");
+                element(xml, "id", postUrl(entry.slug()));
+                element(xml, "title", entry.title());
+                link(xml, postUrl(entry.slug()), "alternate");
+                element(xml, "published", timestamp(entry.createdAt()));
+                element(xml, "updated", timestamp(entry.updatedAt()));
+                element(xml, "summary", entry.summary());
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
+    }
+
+    public byte[] urlset(Collection<SitemapEntry> entries) {
+        return write(xml -> {
+            xml.setDefaultNamespace(SITEMAP_NS);
+            xml.writeStartElement(SITEMAP_NS, "urlset");
+            xml.writeDefaultNamespace(SITEMAP_NS);
+            for (SitemapEntry entry : entries) {
+                xml.writeStartElement(SITEMAP_NS, "url");
+                element(xml, "loc", postUrl(entry.slug()));
+                element(xml, "lastmod", timestamp(entry.updatedAt()));
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
+    }
+
+    /**
+     * @param lastModified the newest lastmod in each shard, in shard order; shard {@code n} is {@code /sitemap-n.xml}
+     */
+    public byte[] sitemapIndex(List<LocalDateTime> lastModified) {
+        return write(xml -> {
+            xml.setDefaultNamespace(SITEMAP_NS);
+            xml.writeStartElement(SITEMAP_NS, "sitemapindex");
+            xml.writeDefaultNamespace(SITEMAP_NS);
+            for (int i = 0; i < lastModified.size(); i++) {
+                xml.writeStartElement(SITEMAP_NS, "sitemap");
+                element(xml, "loc", siteUrl + "/sitemap-" + (i + 1) + ".xml");
+                if (lastModified.get(i) != null) {
+                    element(xml, "lastmod", timestamp(lastModified.get(i)));
+                }
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+        });
+    }
+
+    private String timestamp(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.SECONDS).atZone(zone).toOffsetDateTime().toString();
+    }
+
+    private static LocalDateTime latest(List<FeedEntry> entries) {
+        return entries.stream().map(FeedEntry::updatedAt).max(LocalDateTime::compareTo).orElseThrow();
+    }
+
+    private static void element(XMLStreamWriter xml, String name, String text) throws XMLStreamException {
+        String namespace = xml.getNamespaceContext().getNamespaceURI("");
+        if (namespace == null || namespace.isEmpty()) {
+            xml.writeStartElement(name);
+        } else {
+            xml.writeStartElement(namespace, name);
+        }
+        xml.writeCharacters(text == null ? "" : text);
+        xml.writeEndElement();
+    }
+
+    private static void link(XMLStreamWriter xml, String href, String rel) throws XMLStreamException {
+        xml.writeEmptyElement(ATOM_NS, "link");
+        xml.writeAttribute("href", href);
+        xml.writeAttribute("rel", rel);
+    }
+
+    private static byte[] write(Body body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        try {
+            XMLStreamWriter xml = XML.createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            body.write(xml);
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not write feed", e);
+        }
+        return out.toByteArray();
+    }
+
+    private interface Body {
+        void write(XMLStreamWriter xml) throws XMLStreamException;
+    }
+}
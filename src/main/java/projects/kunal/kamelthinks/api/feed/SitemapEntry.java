@@ -0,0 +1,6 @@
+package projects.kunal.kamelthinks.api.feed;
+
+import java.time.LocalDateTime;
+
+public record SitemapEntry(String slug, LocalDateTime updatedAt) {
+}
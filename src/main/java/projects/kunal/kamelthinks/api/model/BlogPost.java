@@ -1,28 +1,76 @@
 package projects.kunal.kamelthinks.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// updatedAt backs the feeds' incremental reconcile and the incremental export.
+// Existing databases: create index idx_blog_post_updated_at on blog_post (updated_at)
+@Table(indexes = {
+        @Index(name = "idx_blog_post_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_blog_post_updated_at", columnList = "updatedAt")
+})
 public class BlogPost {
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts (IDENTITY forces one round trip per row).
+    // Existing databases: create blog_post_seq and setval it past max(id) before deploying.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blog_post_seq")
+    @SequenceGenerator(name = "blog_post_seq", sequenceName = "blog_post_seq", allocationSize = 50)
     private Long id;
 
     private String title;
     @Column(unique = true)
     private String slug;
 
-    @Lob
+    // text rather than @Lob: on PostgreSQL @Lob is an oid pointing at a large object, which plain SQL readers
+    // (the reactive R2DBC app, psql, exports) see as a number instead of the body.
+    // Existing databases: alter table blog_post alter column markdown type text
+    //   using convert_from(lo_get(markdown), 'UTF8'); then run vacuumlo to free the orphaned large objects
+    @Column(columnDefinition = "text")
     private String markdown;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // Existing databases: alter table blog_post add column version bigint not null default 0
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Owned by ViewCounter, which adds flushed deltas in SQL; entity writes must never overwrite it.
+    // Existing databases: alter table blog_post add column views bigint not null default 0
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long views;
+
+    // Stored as PostTag rows by TagService. Filled in on writes and by PostCache; absent (and left out of the
+    // JSON) wherever posts are read in bulk. On update, null leaves the post's tags as they are.
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> tags;
+
+    // Body-free copy for projections (BlogPostRepository.findWithoutBodyBySlug); markdown stays null
+    public BlogPost(Long id, String title, String slug, LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = id;
+        this.title = title;
+        this.slug = slug;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
 }
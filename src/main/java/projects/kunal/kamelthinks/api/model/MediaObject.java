@@ -0,0 +1,32 @@
+package projects.kunal.kamelthinks.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata of one stored blob. The bytes live on disk under their hash (see {@code MediaStore}), so two
+ * uploads of the same content share one row and one file.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaObject {
+    // Lower-case hex SHA-256 of the content
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    private long size;
+
+    private LocalDateTime createdAt;
+}
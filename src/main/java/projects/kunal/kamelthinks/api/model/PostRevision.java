@@ -0,0 +1,47 @@
+package projects.kunal.kamelthinks.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.Length;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored revision of a post. {@code data} is DEFLATE-compressed: either the full markdown (SNAPSHOT)
+ * or a line delta against the previous revision (DELTA).
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = @Index(name = "idx_post_revision_post_id_revision", columnList = "postId, revision", unique = true))
+public class PostRevision {
+
+    public enum Kind { SNAPSHOT, DELTA }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_revision_seq")
+    @SequenceGenerator(name = "post_revision_seq", sequenceName = "post_revision_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long postId;
+
+    private int revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    private String title;
+
+    @Column(nullable = false, length = Length.LONG32)
+    private byte[] data;
+
+    // Length of the reconstructed markdown, so listings need not rebuild it
+    private int markdownLength;
+
+    private LocalDateTime createdAt;
+}
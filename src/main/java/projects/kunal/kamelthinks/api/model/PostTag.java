@@ -0,0 +1,40 @@
+package projects.kunal.kamelthinks.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Join row between a post and a tag. The primary key (postId, tagId) serves "tags of this post"; the
+ * (tagId, createdAt, postId) index serves "newest posts with this tag", which is why the post's creation
+ * time is copied here: a tag listing page is one index range scan, with no sort over the tag's posts.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(PostTag.Key.class)
+@Table(indexes = @Index(name = "idx_post_tag_tag_id_created_at", columnList = "tagId, createdAt, postId"))
+public class PostTag {
+    @Id
+    private Long postId;
+
+    @Id
+    private Long tagId;
+
+    // A post's createdAt never changes, so this copy cannot go stale
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long postId;
+        private Long tagId;
+    }
+}
@@ -0,0 +1,27 @@
+package projects.kunal.kamelthinks.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tag {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tag_seq")
+    @SequenceGenerator(name = "tag_seq", sequenceName = "tag_seq", allocationSize = 50)
+    private Long id;
+
+    // Normalized by TagService: lower case, words joined with '-'
+    @Column(nullable = false, unique = true, length = 64)
+    private String name;
+
+    // Owned by TagService, which adjusts it in SQL as posts gain and lose the tag; entity writes must never overwrite it
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long postCount;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
 @NoArgsConstructor
@@ -19,4 +21,7 @@ public class User {
     private String username;
 
     private String password;
+
+    // Tokens issued at or before this instant are rejected ("log out everywhere", password change)
+    private LocalDateTime tokensRevokedBefore;
 }
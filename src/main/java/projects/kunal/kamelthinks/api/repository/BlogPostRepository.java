@@ -1,13 +1,92 @@
 package projects.kunal.kamelthinks.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.dto.PostVersion;
 import projects.kunal.kamelthinks.api.model.BlogPost;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+// Query methods run read-only (and so on the replica when one is configured); inherited save/delete stay read-write
 @Repository
+@Transactional(readOnly = true)
 public interface BlogPostRepository extends JpaRepository<BlogPost, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
     Optional<BlogPost> findBySlug(String slug);
-}
 
+    List<BlogPost> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostVersion(p.id, p.updatedAt, p.version) from BlogPost p where p.slug = :slug")
+    Optional<PostVersion> findVersionBySlug(String slug);
+
+    // Every column but the markdown body (and view count); the result is not a managed entity
+    @Query("select new projects.kunal.kamelthinks.api.model.BlogPost(p.id, p.title, p.slug, p.createdAt, p.updatedAt, p.version) " +
+            "from BlogPost p where p.slug = :slug")
+    Optional<BlogPost> findWithoutBodyBySlug(String slug);
+
+    @Query("select p.markdown from BlogPost p where p.id = :id")
+    Optional<String> findMarkdownById(Long id);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostListVersion(count(p), max(p.id), max(p.updatedAt)) from BlogPost p")
+    PostListVersion findListVersion();
+
+    // Newest first; the (createdAt, id) index turns both of these into a bounded index range scan
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from BlogPost p order by p.createdAt desc, p.id desc")
+    List<PostSummary> findLatestSummaries(Limit limit);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from BlogPost p " +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<PostSummary> findSummariesBefore(LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from BlogPost p where p.id > :id order by p.id")
+    List<PostSummary> findSummariesAfterId(Long id, Limit limit);
+
+    // A range scan on the updatedAt index: only the rows written since the given instant
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from BlogPost p where p.updatedAt >= :since order by p.updatedAt, p.id")
+    List<PostSummary> findSummariesUpdatedSince(LocalDateTime since);
+
+    @Query("select p.id from BlogPost p order by p.id")
+    List<Long> findAllIds();
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from BlogPost p where p.id in :ids")
+    List<PostSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("select p.slug from BlogPost p where p.slug in :slugs")
+    Set<String> findExistingSlugs(Collection<String> slugs);
+
+    // Forward-only cursors for the export: rows arrive in fetch-size batches instead of one list.
+    // Must be consumed inside a transaction (PostgreSQL only honours the fetch size with autocommit off).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from BlogPost p order by p.id")
+    Stream<BlogPost> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from BlogPost p where p.updatedAt > :since order by p.updatedAt, p.id")
+    Stream<BlogPost> streamUpdatedSince(LocalDateTime since);
+}
@@ -0,0 +1,11 @@
+package projects.kunal.kamelthinks.api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.model.MediaObject;
+
+@Repository
+@Transactional(readOnly = true)
+public interface MediaRepository extends JpaRepository<MediaObject, String> {
+}
@@ -0,0 +1,34 @@
+package projects.kunal.kamelthinks.api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import projects.kunal.kamelthinks.api.dto.RevisionSummary;
+import projects.kunal.kamelthinks.api.model.PostRevision;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PostRevisionRepository extends JpaRepository<PostRevision, Long> {
+
+    Optional<PostRevision> findTopByPostIdOrderByRevisionDesc(Long postId);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.RevisionSummary(r.revision, r.kind, r.title, r.markdownLength, r.createdAt) " +
+            "from PostRevision r where r.postId = :postId order by r.revision desc")
+    List<RevisionSummary> findSummaries(Long postId);
+
+    @Query("select max(r.revision) from PostRevision r " +
+            "where r.postId = :postId and r.revision <= :revision " +
+            "and r.kind = projects.kunal.kamelthinks.api.model.PostRevision.Kind.SNAPSHOT")
+    Optional<Integer> findSnapshotAtOrBefore(Long postId, int revision);
+
+    // The snapshot a revision is rebuilt from, followed by the deltas up to it
+    @Query("select r from PostRevision r where r.postId = :postId and r.revision between :from and :to order by r.revision")
+    List<PostRevision> findChain(Long postId, int from, int to);
+
+    @Modifying
+    @Query("delete from PostRevision r where r.postId = :postId")
+    int deleteByPostId(Long postId);
+}
@@ -0,0 +1,43 @@
+package projects.kunal.kamelthinks.api.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.model.PostTag;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@Transactional(readOnly = true)
+public interface PostTagRepository extends JpaRepository<PostTag, PostTag.Key> {
+
+    @Query("select pt.tagId from PostTag pt where pt.postId = :postId")
+    List<Long> findTagIdsByPostId(Long postId);
+
+    @Query("select t.name from PostTag pt join Tag t on t.id = pt.tagId where pt.postId = :postId order by t.name")
+    List<String> findTagNamesByPostId(Long postId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from PostTag pt where pt.postId = :postId and pt.tagId in :tagIds")
+    int deleteByPostIdAndTagIdIn(Long postId, Collection<Long> tagIds);
+
+    // Newest first within one tag; both walk the (tagId, createdAt, postId) index and join only the page's posts
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from PostTag pt join BlogPost p on p.id = pt.postId " +
+            "where pt.tagId = :tagId " +
+            "order by pt.createdAt desc, pt.postId desc")
+    List<PostSummary> findLatestSummaries(Long tagId, Limit limit);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.PostSummary(p.id, p.title, p.slug, p.createdAt, p.updatedAt) " +
+            "from PostTag pt join BlogPost p on p.id = pt.postId " +
+            "where pt.tagId = :tagId and (pt.createdAt < :createdAt or (pt.createdAt = :createdAt and pt.postId < :id)) " +
+            "order by pt.createdAt desc, pt.postId desc")
+    List<PostSummary> findSummariesBefore(Long tagId, LocalDateTime createdAt, Long id, Limit limit);
+}
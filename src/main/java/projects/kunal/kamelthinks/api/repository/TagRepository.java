@@ -0,0 +1,33 @@
+package projects.kunal.kamelthinks.api.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.dto.TagCount;
+import projects.kunal.kamelthinks.api.model.Tag;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(readOnly = true)
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    Optional<Tag> findByName(String name);
+
+    List<Tag> findByNameIn(Collection<String> names);
+
+    // Relative update, so concurrent posts tagging the same tag never lose a count
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Tag t set t.postCount = t.postCount + :delta where t.id in :ids")
+    int adjustPostCounts(Collection<Long> ids, long delta);
+
+    @Query("select new projects.kunal.kamelthinks.api.dto.TagCount(t.name, t.postCount) from Tag t " +
+            "where t.postCount > 0 order by t.postCount desc, t.name")
+    List<TagCount> findTopTags(Limit limit);
+}
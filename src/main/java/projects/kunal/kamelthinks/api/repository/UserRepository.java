@@ -1,12 +1,26 @@
 package projects.kunal.kamelthinks.api.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import projects.kunal.kamelthinks.api.model.User;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+// Query methods run read-only (and so on the replica when one is configured); inherited save/delete stay read-write
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    List<User> findByTokensRevokedBeforeAfter(LocalDateTime since);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.tokensRevokedBefore = :cutoff where u.username = :username")
+    int revokeTokensIssuedBefore(String username, LocalDateTime cutoff);
 }
@@ -0,0 +1,134 @@
+package projects.kunal.kamelthinks.api.revision;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An edit script that rebuilds a new text from an old one: runs of lines copied from the old text
+ * (stored as offset and count) and runs of inserted lines (stored verbatim). Its encoded size grows
+ * with the size of the change, not with the size of the text.
+ */
+public final class Delta {
+
+    private static final int COPY = 0;
+    private static final int INSERT = 1;
+
+    private final List<Op> ops;
+
+    private Delta(List<Op> ops) {
+        this.ops = ops;
+    }
+
+    /** Builds the delta from {@code oldLines} to {@code newLines}, or returns null if they differ too much. */
+    public static Delta between(List<String> oldLines, List<String> newLines, int maxEdits) {
+        int[] source = LineDiff.match(oldLines, newLines, maxEdits);
+        if (source == null) {
+            return null;
+        }
+        List<Op> ops = new ArrayList<>();
+        int j = 0;
+        while (j < source.length) {
+            int start = j;
+            if (source[j] >= 0) {
+                while (j + 1 < source.length && source[j + 1] == source[j] + 1) {
+                    j++;
+                }
+                ops.add(new Op(COPY, source[start], j - start + 1, null));
+            } else {
+                while (j + 1 < source.length && source[j + 1] < 0) {
+                    j++;
+                }
+                ops.add(new Op(INSERT, 0, 0, List.copyOf(newLines.subList(start, j + 1))));
+            }
+            j++;
+        }
+        return new Delta(ops);
+    }
+
+    public String apply(List<String> oldLines) {
+        StringBuilder text = new StringBuilder();
+        for (Op op : ops) {
+            if (op.type() == COPY) {
+                for (int i = op.start(); i < op.start() + op.count(); i++) {
+                    text.append(oldLines.get(i));
+                }
+            } else {
+                op.lines().forEach(text::append);
+            }
+        }
+        return text.toString();
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeVarInt(out, ops.size());
+            for (Op op : ops) {
+                out.writeByte(op.type());
+                if (op.type() == COPY) {
+                    writeVarInt(out, op.start());
+                    writeVarInt(out, op.count());
+                } else {
+                    writeVarInt(out, op.lines().size());
+                    for (String line : op.lines()) {
+                        byte[] utf8 = line.getBytes(StandardCharsets.UTF_8);
+                        writeVarInt(out, utf8.length);
+                        out.write(utf8);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Delta decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int count = readVarInt(in);
+            List<Op> ops = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int type = in.readByte();
+                if (type == COPY) {
+                    ops.add(new Op(COPY, readVarInt(in), readVarInt(in), null));
+                } else {
+                    int lineCount = readVarInt(in);
+                    List<String> lines = new ArrayList<>(lineCount);
+                    for (int l = 0; l < lineCount; l++) {
+                        byte[] utf8 = new byte[readVarInt(in)];
+                        in.readFully(utf8);
+                        lines.add(new String(utf8, StandardCharsets.UTF_8));
+                    }
+                    ops.add(new Op(INSERT, 0, 0, lines));
+                }
+            }
+            return new Delta(ops);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt delta", e);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private record Op(int type, int start, int count, List<String> lines) {
+    }
+}
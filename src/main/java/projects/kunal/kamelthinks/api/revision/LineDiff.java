@@ -0,0 +1,241 @@
+package projects.kunal.kamelthinks.api.revision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line-level diff using Myers' O((N+M)D) algorithm, after stripping the common prefix and suffix.
+ * The result maps every line of the new text to the old line it was copied from (or -1 if inserted),
+ * which is all {@link Delta} and the unified-diff renderer need.
+ */
+public final class LineDiff {
+
+    /**
+     * Edit budget for a diff. Myers keeps O(D^2) ints of trace for D edits, so this bounds memory at about 16 MB;
+     * texts further apart than this are treated as a full replacement.
+     */
+    public static final int MAX_EDITS = 2000;
+
+    private LineDiff() {
+    }
+
+    /** Splits text into lines, keeping each line's terminator so joining them gives back the exact text. */
+    public static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return lines;
+        }
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    /**
+     * For each line of {@code b}, the index of the matching line in {@code a}, or -1 for inserted lines.
+     * Matched indexes increase strictly. Returns null if the texts differ in more than {@code maxEdits}
+     * inserted plus deleted lines; callers then store a full copy instead.
+     */
+    public static int[] match(List<String> a, List<String> b, int maxEdits) {
+        int n = a.size();
+        int m = b.size();
+        int[] source = new int[m];
+        Arrays.fill(source, -1);
+
+        int prefix = 0;
+        while (prefix < n && prefix < m && a.get(prefix).equals(b.get(prefix))) {
+            source[prefix] = prefix;
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && a.get(n - 1 - suffix).equals(b.get(m - 1 - suffix))) {
+            source[m - 1 - suffix] = n - 1 - suffix;
+            suffix++;
+        }
+
+        // Compare the middle sections as ints rather than strings
+        Map<String, Integer> ids = new HashMap<>();
+        int[] x = new int[n - prefix - suffix];
+        int[] y = new int[m - prefix - suffix];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = ids.computeIfAbsent(a.get(prefix + i), line -> ids.size());
+        }
+        for (int j = 0; j < y.length; j++) {
+            y[j] = ids.computeIfAbsent(b.get(prefix + j), line -> ids.size());
+        }
+
+        int[] middle = myers(x, y, maxEdits);
+        if (middle == null) {
+            return null;
+        }
+        for (int j = 0; j < middle.length; j++) {
+            if (middle[j] >= 0) {
+                source[prefix + j] = prefix + middle[j];
+            }
+        }
+        return source;
+    }
+
+    /**
+     * Renders a unified diff (with {@code context} unchanged lines around each change) from {@code a} to
+     * {@code b}. Returns an empty string when they are equal.
+     */
+    public static String unified(List<String> a, List<String> b, String fromLabel, String toLabel, int context) {
+        int[] source = match(a, b, MAX_EDITS);
+        if (source == null) {
+            source = new int[b.size()];
+            Arrays.fill(source, -1);
+        }
+
+        // Flatten into one edit sequence: ' ' kept, '-' removed, '+' added, each with its old and new line index
+        List<int[]> edits = new ArrayList<>();
+        int i = 0;
+        for (int j = 0; j < b.size(); j++) {
+            if (source[j] < 0) {
+                if (j == 0 || source[j - 1] >= 0) {
+                    // Removals that this run of additions replaces are listed first, as diff(1) does
+                    int next = j;
+                    while (next < b.size() && source[next] < 0) {
+                        next++;
+                    }
+                    int keep = next < b.size() ? source[next] : a.size();
+                    while (i < keep) {
+                        edits.add(new int[]{'-', i++, j});
+                    }
+                }
+                edits.add(new int[]{'+', i, j});
+            } else {
+                while (i < source[j]) {
+                    edits.add(new int[]{'-', i++, j});
+                }
+                edits.add(new int[]{' ', i++, j});
+            }
+        }
+        while (i < a.size()) {
+            edits.add(new int[]{'-', i++, b.size()});
+        }
+
+        StringBuilder out = new StringBuilder();
+        int e = 0;
+        while (e < edits.size()) {
+            if (edits.get(e)[0] == ' ') {
+                e++;
+                continue;
+            }
+            int start = Math.max(0, e - context);
+            int end = e;
+            // Extend the hunk while the next change is within 2 * context unchanged lines
+            int unchangedRun = 0;
+            for (int f = e; f < edits.size(); f++) {
+                if (edits.get(f)[0] == ' ') {
+                    if (++unchangedRun > 2 * context) {
+                        break;
+                    }
+                } else {
+                    unchangedRun = 0;
+                    end = f;
+                }
+            }
+            end = Math.min(edits.size() - 1, end + context);
+
+            if (out.isEmpty()) {
+                out.append("--- ").append(fromLabel).append('\n').append("+++ ").append(toLabel).append('\n');
+            }
+            int oldCount = 0;
+            int newCount = 0;
+            for (int f = start; f <= end; f++) {
+                int type = edits.get(f)[0];
+                oldCount += type != '+' ? 1 : 0;
+                newCount += type != '-' ? 1 : 0;
+            }
+            int oldStart = edits.get(start)[1] + (oldCount == 0 ? 0 : 1);
+            int newStart = edits.get(start)[2] + (newCount == 0 ? 0 : 1);
+            out.append("@@ -").append(oldStart).append(',').append(oldCount)
+                    .append(" +").append(newStart).append(',').append(newCount).append(" @@\n");
+            for (int f = start; f <= end; f++) {
+                int[] edit = edits.get(f);
+                String line = edit[0] == '+' ? b.get(edit[2]) : a.get(edit[1]);
+                out.append((char) edit[0]).append(line);
+                if (!line.endsWith("\n")) {
+                    out.append("\n\\ No newline at end of file\n");
+                }
+            }
+            e = end + 1;
+        }
+        return out.toString();
+    }
+
+    private static int[] myers(int[] a, int[] b, int maxEdits) {
+        int n = a.length;
+        int m = b.length;
+        int[] source = new int[m];
+        Arrays.fill(source, -1);
+        if (n == 0 || m == 0) {
+            return n + m <= maxEdits ? source : null;
+        }
+
+        int limit = Math.min(n + m, maxEdits);
+        int offset = limit + 1;
+        int[] v = new int[2 * offset + 1];
+        // trace.get(d) holds the furthest x reached on diagonals -d..d after d edits
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= limit; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+                    backtrack(trace, a, b, source);
+                    return source;
+                }
+            }
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+        }
+        return null;
+    }
+
+    private static void backtrack(List<int[]> trace, int[] a, int[] b, int[] source) {
+        int x = a.length;
+        int y = b.length;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] previous = trace.get(d - 1);
+            int k = x - y;
+            boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+            int previousK = down ? k + 1 : k - 1;
+            int previousX = previous[previousK + d - 1];
+            int previousY = previousX - previousK;
+            // Walk back along the snake that followed the edit
+            int snakeStartX = down ? previousX : previousX + 1;
+            while (x > snakeStartX) {
+                x--;
+                y--;
+                source[y] = x;
+            }
+            x = previousX;
+            y = previousY;
+        }
+        while (x > 0 && y > 0) {
+            x--;
+            y--;
+            source[y] = x;
+        }
+    }
+}
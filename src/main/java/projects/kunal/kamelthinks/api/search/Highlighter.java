@@ -0,0 +1,75 @@
+package projects.kunal.kamelthinks.api.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds HTML-escaped snippets with query terms wrapped in {@code <mark>}.
+ */
+public final class Highlighter {
+
+    private Highlighter() {
+    }
+
+    public static String highlight(String text, Set<String> terms) {
+        if (text == null) {
+            return "";
+        }
+        return mark(text, 0, text.length(), Tokenizer.tokenize(text), terms);
+    }
+
+    /**
+     * A window of about {@code length} characters around the first query term in {@code text},
+     * or the start of the text if no term occurs in it.
+     */
+    public static String snippet(String text, Set<String> terms, int length) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        List<Token> tokens = Tokenizer.tokenize(text);
+        int anchor = 0;
+        for (Token token : tokens) {
+            if (terms.contains(token.term())) {
+                anchor = token.start();
+                break;
+            }
+        }
+
+        int start = Math.max(0, anchor - length / 4);
+        if (start > 0) {
+            int space = text.indexOf(' ', start);
+            start = space >= 0 && space < anchor ? space + 1 : start;
+        }
+        int end = Math.min(text.length(), start + length);
+        if (end < text.length()) {
+            int space = text.lastIndexOf(' ', end);
+            end = space > anchor ? space : end;
+        }
+
+        String body = mark(text, start, end, tokens, terms);
+        return (start > 0 ? "…" : "") + body + (end < text.length() ? "…" : "");
+    }
+
+    private static String mark(String text, int start, int end, List<Token> tokens, Set<String> terms) {
+        StringBuilder sb = new StringBuilder(end - start + 32);
+        int position = start;
+        for (Token token : tokens) {
+            if (token.start() < start || token.end() > end || !terms.contains(token.term())) {
+                continue;
+            }
+            sb.append(clean(text.substring(position, token.start())))
+                    .append("<mark>").append(HtmlUtils.htmlEscape(text.substring(token.start(), token.end())))
+                    .append("</mark>");
+            position = token.end();
+        }
+        return sb.append(clean(text.substring(position, end))).toString();
+    }
+
+    // Drop the markdown punctuation that reads as noise in a one-line snippet, then escape
+    private static String clean(String fragment) {
+        String plain = fragment.replaceAll("(^|\n)\\s*>+", "$1").replaceAll("[*_`#]+", "");
+        return HtmlUtils.htmlEscape(plain.replaceAll("\\s+", " "));
+    }
+}
@@ -0,0 +1,277 @@
+package projects.kunal.kamelthinks.api.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over two fields (title and body) with BM25F-style ranking.
+ * <p>
+ * Posting lists are parallel primitive arrays (doc id, title tf, body tf) kept in ascending doc-id order.
+ * Every (re)indexed post gets a fresh doc id, so adds are appends; removals and re-indexes only tombstone the
+ * old doc and the lists are compacted once a quarter of the docs are dead. Document frequencies are counted over live docs
+ * while scoring, so tombstones never skew the ranking.
+ * Safe for concurrent use: searches share a read lock, mutations take the write lock.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int INITIAL_DOCS = 1024;
+
+    private final float titleBoost;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByPost = new HashMap<>();
+
+    // Per-doc columns, indexed by doc id
+    private long[] postIds = new long[INITIAL_DOCS];
+    private long[] versions = new long[INITIAL_DOCS];
+    private int[] titleLengths = new int[INITIAL_DOCS];
+    private int[] bodyLengths = new int[INITIAL_DOCS];
+    private final BitSet deleted = new BitSet();
+
+    private int nextDoc;
+    private int liveDocs;
+    private int deletedDocs;
+    private long totalTitleLength;
+    private long totalBodyLength;
+
+    public InvertedIndex(float titleBoost) {
+        this.titleBoost = titleBoost;
+    }
+
+    /**
+     * Indexes (or re-indexes) a post. A version older than the one already indexed is ignored, so a
+     * background rebuild can never overwrite a newer incremental update.
+     */
+    public void add(long postId, long version, List<String> titleTerms, List<String> bodyTerms) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docByPost.get(postId);
+            if (existing != null) {
+                if (versions[existing] > version) {
+                    return;
+                }
+                removeDoc(existing);
+                compactIfSparse();
+            }
+
+            int doc = nextDoc++;
+            ensureDocCapacity(doc + 1);
+            postIds[doc] = postId;
+            versions[doc] = version;
+            titleLengths[doc] = titleTerms.size();
+            bodyLengths[doc] = bodyTerms.size();
+            docByPost.put(postId, doc);
+            liveDocs++;
+            totalTitleLength += titleTerms.size();
+            totalBodyLength += bodyTerms.size();
+
+            Map<String, int[]> frequencies = new HashMap<>();
+            for (String term : titleTerms) {
+                frequencies.computeIfAbsent(term, t -> new int[2])[0]++;
+            }
+            for (String term : bodyTerms) {
+                frequencies.computeIfAbsent(term, t -> new int[2])[1]++;
+            }
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new Postings())
+                        .append(doc, entry.getValue()[0], entry.getValue()[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long postId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docByPost.get(postId);
+            if (doc == null) {
+                return false;
+            }
+            removeDoc(doc);
+            compactIfSparse();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ScoredDoc> search(Collection<String> terms, int limit) {
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0 || terms.isEmpty()) {
+                return List.of();
+            }
+            float avgLength = (titleBoost * totalTitleLength + totalBodyLength) / (float) liveDocs;
+            float[] scores = new float[nextDoc];
+            BitSet touched = new BitSet(nextDoc);
+
+            for (String term : new LinkedHashSet<>(terms)) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                int df = 0;
+                for (int i = 0; i < list.size; i++) {
+                    if (!deleted.get(list.docs[i])) {
+                        df++;
+                    }
+                }
+                if (df == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    if (deleted.get(doc)) {
+                        continue;
+                    }
+                    float tf = titleBoost * list.titleTfs[i] + list.bodyTfs[i];
+                    float length = titleBoost * titleLengths[doc] + bodyLengths[doc];
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / avgLength));
+                    touched.set(doc);
+                }
+            }
+
+            // Min-heap of the best `limit` docs seen so far
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Comparator.comparingDouble(ScoredDoc::score));
+            for (int doc = touched.nextSetBit(0); doc >= 0; doc = touched.nextSetBit(doc + 1)) {
+                if (top.size() < limit) {
+                    top.add(new ScoredDoc(postIds[doc], scores[doc]));
+                } else if (scores[doc] > top.peek().score()) {
+                    top.poll();
+                    top.add(new ScoredDoc(postIds[doc], scores[doc]));
+                }
+            }
+            List<ScoredDoc> results = new ArrayList<>(top);
+            results.sort(Comparator.comparingDouble(ScoredDoc::score).reversed());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of doc slots in use, live or tombstoned; bounded by compaction to roughly 1.25x the live docs.
+     */
+    public int docSlots() {
+        lock.readLock().lock();
+        try {
+            return nextDoc;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDoc(int doc) {
+        deleted.set(doc);
+        docByPost.remove(postIds[doc]);
+        liveDocs--;
+        deletedDocs++;
+        totalTitleLength -= titleLengths[doc];
+        totalBodyLength -= bodyLengths[doc];
+    }
+
+    private void compactIfSparse() {
+        if (deletedDocs > Math.max(64, liveDocs / 4)) {
+            compact();
+        }
+    }
+
+    // Renumbers live docs densely and drops tombstoned entries from every posting list
+    private void compact() {
+        int[] remap = new int[nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+            } else {
+                remap[doc] = live;
+                postIds[live] = postIds[doc];
+                versions[live] = versions[doc];
+                titleLengths[live] = titleLengths[doc];
+                bodyLengths[live] = bodyLengths[doc];
+                docByPost.put(postIds[live], live);
+                live++;
+            }
+        }
+
+        Iterator<Postings> it = postings.values().iterator();
+        while (it.hasNext()) {
+            Postings list = it.next();
+            list.retain(remap);
+            if (list.size == 0) {
+                it.remove();
+            }
+        }
+        nextDoc = live;
+        deleted.clear();
+        deletedDocs = 0;
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > postIds.length) {
+            int newLength = Math.max(capacity, postIds.length * 2);
+            postIds = Arrays.copyOf(postIds, newLength);
+            versions = Arrays.copyOf(versions, newLength);
+            titleLengths = Arrays.copyOf(titleLengths, newLength);
+            bodyLengths = Arrays.copyOf(bodyLengths, newLength);
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] titleTfs = new int[4];
+        int[] bodyTfs = new int[4];
+        int size;
+
+        void append(int doc, int titleTf, int bodyTf) {
+            if (size == docs.length) {
+                int newLength = size * 2;
+                docs = Arrays.copyOf(docs, newLength);
+                titleTfs = Arrays.copyOf(titleTfs, newLength);
+                bodyTfs = Arrays.copyOf(bodyTfs, newLength);
+            }
+            docs[size] = doc;
+            titleTfs[size] = titleTf;
+            bodyTfs[size] = bodyTf;
+            size++;
+        }
+
+        void retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    titleTfs[kept] = titleTfs[i];
+                    bodyTfs[kept] = bodyTfs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package projects.kunal.kamelthinks.api.search;
+
+public record ScoredDoc(long postId, float score) {
+}
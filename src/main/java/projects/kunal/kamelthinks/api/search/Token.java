@@ -0,0 +1,7 @@
+package projects.kunal.kamelthinks.api.search;
+
+/**
+ * A normalized term and the character range it was read from.
+ */
+public record Token(String term, int start, int end) {
+}
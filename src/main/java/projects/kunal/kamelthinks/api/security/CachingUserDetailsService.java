@@ -0,0 +1,70 @@
+package projects.kunal.kamelthinks.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import projects.kunal.kamelthinks.api.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+/**
+ * UserDetailsService that keeps recently loaded users in memory, so a stream of authenticated requests
+ * from the same user does not hit the database once per request.
+ * Entries live for at most {@code ttl} and are dropped straight away on a {@link UserCredentialsChangedEvent}.
+ */
+public class CachingUserDetailsService implements UserDetailsService, MeterBinder {
+
+    private final UserRepository userRepository;
+    private final Cache<String, CachedUser> users;
+
+    public CachingUserDetailsService(UserRepository userRepository, Duration ttl, long maxSize) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser cached = users.get(username, this::load);
+        if (cached == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        // Always hand out a fresh User: the AuthenticationManager erases credentials on the instance it returns
+        return new User(cached.username(), cached.password(), new ArrayList<>()); // Replace with actual roles/authorities if you have them
+    }
+
+    public void evict(String username) {
+        users.invalidate(username);
+    }
+
+    @EventListener
+    public void onCredentialsChanged(UserCredentialsChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "security.users");
+    }
+
+    // Unknown users are not cached (null is never stored), so a later registration is picked up straight away
+    private CachedUser load(String username) {
+        return userRepository.findByUsername(username)
+                .map(user -> new CachedUser(user.getUsername(), user.getPassword()))
+                .orElse(null);
+    }
+
+    private record CachedUser(String username, String password) {
+    }
+}
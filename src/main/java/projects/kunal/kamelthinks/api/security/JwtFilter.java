@@ -1,9 +1,15 @@
 package projects.kunal.kamelthinks.api.security;
 
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,16 +19,32 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil; // this is your utility class (assumed)
+    private final TokenRevocationService tokenRevocation;
 
-    public JwtFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    // security.jwt.filter{step=...}: where the time goes for an authenticated request
+    private final Timer parseTimer;
+    private final Timer verifyTimer;
+    private final Timer userLoadTimer;
+    private final Counter rejectedTokens;
+
+    public JwtFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil, TokenRevocationService tokenRevocation,
+                     ObjectProvider<MeterRegistry> registries) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocation = tokenRevocation;
+        // Slice tests run without a registry; the global one is a no-op there
+        MeterRegistry registry = registries.getIfAvailable(() -> Metrics.globalRegistry);
+        this.parseTimer = Timer.builder("security.jwt.filter").tag("step", "parse").register(registry);
+        this.verifyTimer = Timer.builder("security.jwt.filter").tag("step", "verify").register(registry);
+        this.userLoadTimer = Timer.builder("security.jwt.filter").tag("step", "user-load").register(registry);
+        this.rejectedTokens = Counter.builder("security.jwt.rejected").register(registry);
     }
 
     @Override
@@ -30,26 +52,40 @@ public class JwtFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
+        long start = System.nanoTime();
         final String authHeader = request.getHeader("Authorization");
+        final String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        parseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-        String username = null;
-        String token = null;
+        VerifiedToken verified = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtUtil.getUsernameFromToken(token);
+        if (token != null) {
+            start = System.nanoTime();
+            try {
+                // One parse (or one cache hit) covers signature, subject and expiry
+                verified = jwtUtil.verifyToken(token);
+                // In-memory for all but revoked tokens (and rare Bloom false positives)
+                if (tokenRevocation.isRevoked(verified)) {
+                    verified = null;
+                    rejectedTokens.increment();
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Bad or expired token: carry on unauthenticated and let authorization decide
+                rejectedTokens.increment();
+            } finally {
+                verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String subject = verified.getSubject();
+            UserDetails userDetails = userLoadTimer.record(() -> userDetailsService.loadUserByUsername(subject));
 
-            if (jwtUtil.validateToken(token, username)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
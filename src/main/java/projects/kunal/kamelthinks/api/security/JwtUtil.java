@@ -1,16 +1,33 @@
 package projects.kunal.kamelthinks.api.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component // Make sure this is annotated as a Spring Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
+
+    // iat has one-second resolution; revocation cutoffs need to order tokens within a second
+    static final String ISSUED_AT_MILLIS = "iat_ms";
 
     @Value("${jwt.secret}") // Assuming you store your secret key in application.properties/yaml
     private String secret;
@@ -18,54 +35,117 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration; // In milliseconds
 
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
     private SecretKey key; // Declare a SecretKey field
 
-    // This method should be called once, e.g., in @PostConstruct or in the constructor
-    // to initialize the SecretKey from your string secret.
+    // Parsers are immutable and thread-safe, so one is built up front and shared by every request
+    private JwtParser parser;
+
+    // Verified tokens keyed by the SHA-256 of the compact token; each entry expires together with its token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
     }
 
     public String generateToken(String username) {
-        // Initialize the key if it hasn't been already (e.g., if you don't use @PostConstruct)
-        if (this.key == null) {
-            init();
-        }
-
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString()) // jti, so a single token can be revoked
                 .setSubject(username)
                 .setIssuedAt(now)
+                .claim(ISSUED_AT_MILLIS, now.getTime())
                 .setExpiration(expiryDate)
                 // Use the Key object directly with the modern API
                 .signWith(key) // This is the corrected line for jjwt 0.10+
                 .compact();
     }
 
-    // You might also need to update parseToken, validateToken methods similarly
+    /**
+     * Full, uncached parse. Prefer {@link #verifyToken(String)} on the request path.
+     */
     public Claims getClaimsFromToken(String token) {
-        if (this.key == null) {
-            init();
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies the signature and expiry of a token exactly once and caches the result until the token expires,
+     * so repeated requests with the same bearer token skip the HMAC check entirely.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verifyToken(String token) {
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
         }
-        return Jwts.parser()
-                .setSigningKey(key) // Use the Key object here too
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+
+        Claims claims = getClaimsFromToken(token);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), issuedAt(claims), claims.getExpiration(),
+                claims.getId());
+        if (verified.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return verified;
     }
 
     public String getUsernameFromToken(String token) {
-        return getClaimsFromToken(token).getSubject();
+        return verifyToken(token).getSubject();
     }
 
     public boolean validateToken(String token, String username) {
-        String tokenUsername = getUsernameFromToken(token);
-        return (tokenUsername.equals(username) && !isTokenExpired(token));
+        VerifiedToken verified = verifyToken(token);
+        return verified.getSubject().equals(username) && !verified.isExpired();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    // Tokens issued before iat_ms was added fall back to the whole-second iat
+    private static Date issuedAt(Claims claims) {
+        return claims.get(ISSUED_AT_MILLIS) instanceof Number millis ? new Date(millis.longValue()) : claims.getIssuedAt();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return getClaimsFromToken(token).getExpiration().before(new Date());
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            long millisLeft = token.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
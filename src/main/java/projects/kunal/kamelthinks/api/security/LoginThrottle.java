@@ -0,0 +1,49 @@
+package projects.kunal.kamelthinks.api.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limits login attempts per username, whichever IPs they come from, so password guessing against one
+ * account is throttled even when spread over many clients. Every attempt takes a permit atomically before
+ * any BCrypt work is done, so concurrent guesses cannot all slip past the check; a successful login clears
+ * the slate, so in effect only failures are counted.
+ */
+@Component
+public class LoginThrottle {
+
+    private final RateLimiter failures;
+
+    public LoginThrottle(@Value("${security.login-throttle.failures:5}") int maxFailures,
+                         @Value("${security.login-throttle.period:PT15M}") Duration period,
+                         @Value("${security.login-throttle.max-users:100000}") long maxUsers) {
+        this.failures = new RateLimiter(maxFailures, period, maxUsers);
+    }
+
+    /**
+     * Takes an attempt for {@code username}; call {@link #recordSuccess} or {@link #release} once it is decided.
+     *
+     * @return 0 if the attempt may go ahead, otherwise the nanoseconds to wait
+     */
+    public long tryAcquire(String username) {
+        return failures.tryAcquire(key(username));
+    }
+
+    public void recordSuccess(String username) {
+        failures.reset(key(username));
+    }
+
+    /**
+     * Returns an attempt that never reached password verification (e.g. the hashing pool was full).
+     */
+    public void release(String username) {
+        failures.refund(key(username));
+    }
+
+    private static String key(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,84 @@
+package projects.kunal.kamelthinks.api.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Per-client-IP rate limits on the expensive or abusable routes: login, password change and register (a BCrypt hash each)
+ * and post writes (media uploads included). Runs ahead of {@link JwtFilter}, so a rejected request costs a map lookup and never
+ * reaches token parsing, the user lookup or the database.
+ * <p>
+ * The client is {@code request.getRemoteAddr()}; behind a proxy, set {@code server.forward-headers-strategy}
+ * so that it reflects the real client rather than the proxy.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN = "/api/auth/login";
+    private static final String PASSWORD = "/api/auth/password";
+    private static final String REGISTER = "/api/auth/register";
+    private static final String POSTS = "/api/posts";
+    private static final String MEDIA = "/api/media";
+
+    private final RateLimiter login;
+    private final RateLimiter register;
+    private final RateLimiter postWrites;
+
+    public RateLimitFilter(@Value("${security.rate-limit.login.permits:20}") int loginPermits,
+                           @Value("${security.rate-limit.login.period:PT1M}") Duration loginPeriod,
+                           @Value("${security.rate-limit.register.permits:5}") int registerPermits,
+                           @Value("${security.rate-limit.register.period:PT10M}") Duration registerPeriod,
+                           @Value("${security.rate-limit.post-writes.permits:60}") int postWritePermits,
+                           @Value("${security.rate-limit.post-writes.period:PT1M}") Duration postWritePeriod,
+                           @Value("${security.rate-limit.max-clients:100000}") long maxClients) {
+        this.login = new RateLimiter(loginPermits, loginPeriod, maxClients);
+        this.register = new RateLimiter(registerPermits, registerPeriod, maxClients);
+        this.postWrites = new RateLimiter(postWritePermits, postWritePeriod, maxClients);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimiter limiter = limiterFor(request);
+        if (limiter != null) {
+            long wait = limiter.tryAcquire(request.getRemoteAddr());
+            if (wait > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(RateLimiter.retryAfterSeconds(wait)));
+                response.setContentType("text/plain");
+                response.getWriter().write("Too many requests, try again later");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private RateLimiter limiterFor(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // Password changes verify the current password, so they count against the same budget as logins
+        if (path.equals(LOGIN) || path.equals(PASSWORD)) {
+            return login;
+        }
+        if (path.equals(REGISTER)) {
+            return register;
+        }
+        if (path.equals(POSTS) || path.startsWith(POSTS + "/") || path.equals(MEDIA)) {
+            return postWrites;
+        }
+        return null;
+    }
+}
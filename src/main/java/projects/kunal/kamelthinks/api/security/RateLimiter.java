@@ -0,0 +1,93 @@
+package projects.kunal.kamelthinks.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, allowing {@code permits} requests per {@code period} with bursts of up to
+ * {@code permits}. Implemented as GCRA: each key holds a single "theoretical arrival time" advanced by
+ * compare-and-set, so both accepting and rejecting are one map lookup and one CAS, with no locks.
+ * <p>
+ * Keys idle for a full period are evicted (their bucket would be full again anyway), and at most
+ * {@code maxKeys} are kept, so memory stays bounded however many clients show up.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(int permits, Duration period, long maxKeys) {
+        this(permits, period, maxKeys, System::nanoTime);
+    }
+
+    public RateLimiter(int permits, Duration period, long maxKeys, LongSupplier clock) {
+        if (permits <= 0 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit needs positive permits and period");
+        }
+        this.intervalNanos = period.toNanos() / permits;
+        this.burstNanos = intervalNanos * (permits - 1);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(period)
+                .maximumSize(maxKeys)
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Takes a permit for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise how many nanoseconds to wait before the next permit
+     */
+    public long tryAcquire(String key) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = arrival.get();
+            long tat = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long wait = tat - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, tat + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * How long until {@code key} gets a permit, without taking one.
+     */
+    public long waitTime(String key) {
+        AtomicLong arrival = buckets.getIfPresent(key);
+        if (arrival == null) {
+            return 0;
+        }
+        long current = arrival.get();
+        return current == Long.MIN_VALUE ? 0 : Math.max(0, current - clock.getAsLong() - burstNanos);
+    }
+
+    /**
+     * Gives back a permit taken by {@link #tryAcquire} for work that never happened.
+     */
+    public void refund(String key) {
+        AtomicLong arrival = buckets.getIfPresent(key);
+        if (arrival != null) {
+            arrival.getAndUpdate(current -> current == Long.MIN_VALUE ? current : current - intervalNanos);
+        }
+    }
+
+    public void reset(String key) {
+        buckets.invalidate(key);
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,201 @@
+package projects.kunal.kamelthinks.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import projects.kunal.kamelthinks.api.model.RevokedToken;
+import projects.kunal.kamelthinks.api.model.User;
+import projects.kunal.kamelthinks.api.repository.RevokedTokenRepository;
+import projects.kunal.kamelthinks.api.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token revocation without a database query per request. Two kinds are supported:
+ * <ul>
+ *     <li>single tokens by {@code jti} (logout), persisted as {@link RevokedToken} rows until the token
+ *     would have expired, and</li>
+ *     <li>every token of a user issued at or before a cutoff ("log out everywhere", password change), kept
+ *     on the user row.</li>
+ * </ul>
+ * Revoked ids go into an in-memory {@link BloomFilter}; a token that misses it is known good after a few
+ * hash probes. Only a Bloom hit reaches the database, and the answer is then cached until the token
+ * expires. User cutoffs are few and held in a plain map. Cutoffs and issue times are compared in
+ * milliseconds, so logging in again straight after a password change or "log out everywhere" yields a
+ * token that works; only tokens without the {@code iat_ms} claim fall back to whole seconds.
+ * <p>
+ * State is rebuilt from the database at startup and every {@code security.revocation.rebuild-interval}
+ * (which also drops expired ids), and revocations made by other instances are picked up every
+ * {@code security.revocation.refresh-interval}.
+ */
+@Component
+public class TokenRevocationService implements MeterBinder {
+
+    private final RevokedTokenRepository revokedTokens;
+    private final UserRepository userRepository;
+    private final long expectedTokens;
+    private final double falsePositiveRate;
+    private final Duration tokenLifetime;
+    private final Duration refreshInterval;
+    private final Cache<String, Lookup> lookups;
+
+    private volatile BloomFilter revokedIds;
+    // username -> epoch millisecond; tokens issued at or before the cutoff are revoked
+    private volatile Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+    private LocalDateTime lastRefresh = LocalDateTime.now();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokens,
+                                  UserRepository userRepository,
+                                  @Value("${security.revocation.expected-tokens:100000}") long expectedTokens,
+                                  @Value("${security.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                  @Value("${security.revocation.max-lookups:100000}") long maxLookups,
+                                  @Value("${security.revocation.refresh-interval:PT30S}") Duration refreshInterval,
+                                  @Value("${jwt.expiration}") long expirationMillis) {
+        this.revokedTokens = revokedTokens;
+        this.userRepository = userRepository;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetime = Duration.ofMillis(expirationMillis);
+        this.refreshInterval = refreshInterval;
+        this.revokedIds = new BloomFilter(expectedTokens, falsePositiveRate);
+        this.lookups = Caffeine.newBuilder()
+                .maximumSize(maxLookups)
+                .expireAfter(new LookupExpiry())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        Map<String, Long> cutoffs = userCutoffs;
+        if (!cutoffs.isEmpty()) {
+            Long cutoff = cutoffs.get(token.getSubject());
+            if (cutoff != null && (token.getIssuedAt() == null || token.getIssuedAt().getTime() <= cutoff)) {
+                return true;
+            }
+        }
+        String id = token.getId();
+        if (id == null || !revokedIds.mightContain(id)) {
+            return false;
+        }
+        long expiresAt = token.getExpiration() == null ? Long.MAX_VALUE : token.getExpiration().getTime();
+        return lookups.get(id, jti -> new Lookup(revokedTokens.existsById(jti), expiresAt)).revoked();
+    }
+
+    /**
+     * Revokes one token until it expires. Tokens issued before token ids were introduced have no
+     * {@code jti}; for those every token of the user up to this one's {@code iat} is revoked instead.
+     */
+    public synchronized void revoke(VerifiedToken token) {
+        if (token.getId() == null) {
+            Date issuedAt = token.getIssuedAt();
+            revokeAllIssuedBefore(token.getSubject(), issuedAt == null ? Instant.now() : issuedAt.toInstant());
+            return;
+        }
+        Date expiration = token.getExpiration();
+        LocalDateTime expiresAt = expiration == null ? LocalDateTime.now().plus(tokenLifetime) : toLocal(expiration.toInstant());
+        revokedTokens.save(new RevokedToken(token.getId(), token.getSubject(), expiresAt, LocalDateTime.now()));
+        revokedIds.put(token.getId());
+        lookups.put(token.getId(), new Lookup(true, expiration == null ? Long.MAX_VALUE : expiration.getTime()));
+    }
+
+    public synchronized void revokeAllIssuedBefore(String username, Instant cutoff) {
+        userRepository.revokeTokensIssuedBefore(username, toLocal(cutoff));
+        userCutoffs.merge(username, cutoff.toEpochMilli(), Math::max);
+    }
+
+    /** Reloads everything from the database into a fresh Bloom filter and purges expired rows. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.revocation.rebuild-interval:PT1H}",
+            initialDelayString = "${security.revocation.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokens.deleteExpired(now);
+        List<String> ids = revokedTokens.findActiveIds(now);
+        BloomFilter fresh = new BloomFilter(Math.max(expectedTokens, 2L * ids.size()), falsePositiveRate);
+        ids.forEach(fresh::put);
+
+        Map<String, Long> cutoffs = new ConcurrentHashMap<>();
+        for (User user : userRepository.findByTokensRevokedBeforeAfter(now.minus(tokenLifetime))) {
+            cutoffs.put(user.getUsername(), toInstant(user.getTokensRevokedBefore()).toEpochMilli());
+        }
+        revokedIds = fresh;
+        userCutoffs = cutoffs;
+        lastRefresh = now;
+    }
+
+    /** Picks up revocations made since the last refresh, e.g. on other instances. */
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-interval:PT30S}",
+            initialDelayString = "${security.revocation.refresh-interval:PT30S}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the previous window so rows committed late (or stamped by a skewed clock) are not missed
+        LocalDateTime since = lastRefresh.minus(refreshInterval);
+        for (String id : revokedTokens.findActiveIdsRevokedSince(since, now)) {
+            revokedIds.put(id);
+            lookups.invalidate(id);
+        }
+        for (User user : userRepository.findByTokensRevokedBeforeAfter(now.minus(tokenLifetime))) {
+            userCutoffs.merge(user.getUsername(), toInstant(user.getTokensRevokedBefore()).toEpochMilli(), Math::max);
+        }
+        // Cutoffs older than a token lifetime can no longer match any live token
+        long oldest = toInstant(now.minus(tokenLifetime)).toEpochMilli();
+        userCutoffs.values().removeIf(cutoff -> cutoff < oldest);
+        lastRefresh = now;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, lookups, "security.revocation.lookups");
+        Gauge.builder("security.revocation.bloom.bits", this, service -> service.revokedIds.bitCount())
+                .register(registry);
+        Gauge.builder("security.revocation.user-cutoffs", this, service -> service.userCutoffs.size())
+                .register(registry);
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private record Lookup(boolean revoked, long expiresAtMillis) {
+    }
+
+    // Each answer is kept exactly as long as the token it is about
+    private static class LookupExpiry implements Expiry<String, Lookup> {
+        @Override
+        public long expireAfterCreate(String key, Lookup lookup, long currentTime) {
+            long millisLeft = lookup.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Lookup lookup, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, lookup, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Lookup lookup, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
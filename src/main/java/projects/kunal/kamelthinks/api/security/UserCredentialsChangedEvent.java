@@ -0,0 +1,12 @@
+package projects.kunal.kamelthinks.api.security;
+
+import lombok.Value;
+
+/**
+ * Published whenever a user's stored credentials are created or replaced,
+ * so anything holding on to the old ones (caches, issued tokens) can drop them.
+ */
+@Value
+public class UserCredentialsChangedEvent {
+    String username;
+}
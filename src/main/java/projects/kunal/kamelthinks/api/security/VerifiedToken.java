@@ -0,0 +1,23 @@
+package projects.kunal.kamelthinks.api.security;
+
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * The result of a successful signature + expiry check on a JWT.
+ * Immutable, so a single instance can be shared between requests through the verified-token cache.
+ */
+@Value
+public class VerifiedToken {
+    String subject;
+    // Millisecond precision from the iat_ms claim; whole seconds for tokens issued before it was added
+    Date issuedAt;
+    Date expiration;
+    // jti; null for tokens issued before token ids were added
+    String id;
+
+    public boolean isExpired() {
+        return expiration != null && !expiration.after(new Date());
+    }
+}
@@ -1,43 +1,243 @@
 package projects.kunal.kamelthinks.api.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.dto.PostPage;
+import projects.kunal.kamelthinks.api.dto.PostPatch;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.dto.PostVersion;
+import projects.kunal.kamelthinks.api.dto.RenderedPost;
 import projects.kunal.kamelthinks.api.model.BlogPost;
 import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+// Every public operation is timed as posts.service{class,method}
 @Service
+@Timed(value = "posts.service", histogram = true)
 public class BlogPostService {
+    static final int MAX_PAGE_SIZE = 100;
+
+    // Fixed routes under /api/posts; a post with one of these slugs could never be read at /api/posts/{slug}
+    private static final Set<String> RESERVED_SLUGS = Set.of("summaries", "export", "import", "popular", "search", "tags");
+
     @Autowired
     private BlogPostRepository blogPostRepository;
 
+    @Autowired
+    private PostCache postCache;
+
+    @Autowired
+    private RenderedPostCache renderedPostCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private InlineImageExtractor inlineImageExtractor;
+
+    @Autowired
+    private PostListVersionTracker listVersionTracker;
+
+    /**
+     * @throws IllegalArgumentException if the slug is reserved or one of the post's tags is malformed
+     */
+    @Transactional
     public BlogPost createPost(BlogPost post) {
+        if (isReservedSlug(post.getSlug())) {
+            throw new IllegalArgumentException("Slug is reserved: " + post.getSlug());
+        }
+        List<String> tags = post.getTags();
+        post.setVersion(null);
+        post.setMarkdown(inlineImageExtractor.extract(post.getMarkdown()));
         post.setCreatedAt(LocalDateTime.now());
         post.setUpdatedAt(LocalDateTime.now());
-        return blogPostRepository.save(post);
+        BlogPost saved = blogPostRepository.save(post);
+        saved.setTags(tags == null || tags.isEmpty() ? List.of() : tagService.setTags(saved, tags));
+        eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.Type.CREATED, saved));
+        return saved;
     }
 
     public BlogPost getPost(String slug) {
-        return blogPostRepository.findBySlug(slug)
+        return postCache.get(slug)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
     }
 
-    public List<BlogPost> getAllPosts() {
-        return blogPostRepository.findAll();
+    public RenderedPost getRenderedPost(String slug) {
+        return renderedPostCache.get(getPost(slug));
+    }
+
+    public Optional<PostVersion> getPostVersion(String slug) {
+        BlogPost cached = postCache.peek(slug);
+        if (cached != null) {
+            return Optional.of(new PostVersion(cached.getId(), cached.getUpdatedAt(), cached.getVersion()));
+        }
+        return blogPostRepository.findVersionBySlug(slug);
+    }
+
+    // From memory: list revalidations cost no query
+    public PostListVersion getListVersion() {
+        return listVersionTracker.get();
     }
 
+    /**
+     * Up to {@code limit} full posts with an id above {@code afterId}, in id order. Capped like the summaries,
+     * since every row carries its markdown.
+     */
+    public List<BlogPost> getPosts(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return blogPostRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+    }
+
+    /**
+     * Newest-first listing without markdown bodies. Pass the previous page's {@code nextCursor} to continue;
+     * the cost of a page does not depend on how deep into the listing it is.
+     */
+    public PostPage getPostSummaries(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to find out whether there is a next page
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<PostSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = blogPostRepository.findLatestSummaries(fetch);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            summaries = blogPostRepository.findSummariesBefore(after.createdAt(), after.id(), fetch);
+        }
+        return page(summaries, pageSize);
+    }
+
+    // summaries holds up to pageSize + 1 rows; the extra one only says that there is a next page
+    static PostPage page(List<PostSummary> summaries, int pageSize) {
+        if (summaries.size() <= pageSize) {
+            return new PostPage(summaries, null);
+        }
+        List<PostSummary> page = summaries.subList(0, pageSize);
+        return new PostPage(page, PostCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    @Transactional
     public BlogPost updatePost(String slug, BlogPost newPost) {
-        BlogPost post = getPost(slug);
+        return updatePost(slug, newPost, null);
+    }
+
+    /**
+     * Replaces title and markdown. With a non-null {@code expectedVersion} the write only happens if the
+     * post is still at that version; either way a concurrent write between our read and our update is
+     * caught by the version column rather than silently overwritten. Tags are replaced only when
+     * {@code newPost} carries a (possibly empty) tag list.
+     */
+    @Transactional
+    public BlogPost updatePost(String slug, BlogPost newPost, Long expectedVersion) {
+        // Writes start from a fresh row, never from the shared cached instance
+        BlogPost post = findForWrite(slug);
+        if (expectedVersion != null && !expectedVersion.equals(post.getVersion())) {
+            throw new PostVersionConflictException(slug);
+        }
         post.setTitle(newPost.getTitle());
-        post.setMarkdown(newPost.getMarkdown());
+        post.setMarkdown(inlineImageExtractor.extract(newPost.getMarkdown()));
         post.setUpdatedAt(LocalDateTime.now());
-        return blogPostRepository.save(post);
+        BlogPost saved;
+        try {
+            // Dynamic update: an unchanged markdown body is left out of the UPDATE. Flushed here so the
+            // version check happens now and the returned post carries the new version even inside an outer transaction
+            saved = blogPostRepository.saveAndFlush(post);
+        } catch (OptimisticLockingFailureException e) {
+            throw new PostVersionConflictException(slug);
+        }
+        saved.setTags(newPost.getTags() == null ? tagService.getTags(saved.getId()) : tagService.setTags(saved, newPost.getTags()));
+        eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.Type.UPDATED, saved));
+        return saved;
     }
 
+    /**
+     * Writes only the fields present in {@code patch}, as a single UPDATE guarded by
+     * {@code expectedVersion} when given. Nothing is read before the write, so patching the title of a
+     * multi-megabyte post never touches its body column.
+     * <p>
+     * The returned post carries its markdown only if the patch set it. Listeners get the same post and read
+     * the body themselves, once, only if one of them needs it.
+     */
+    @Transactional
+    public BlogPost patchPost(String slug, PostPatch patch, Long expectedVersion) {
+        String markdown = patch.getMarkdown() == null ? null : inlineImageExtractor.extract(patch.getMarkdown());
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<BlogPost> update = cb.createCriteriaUpdate(BlogPost.class);
+        Root<BlogPost> root = update.from(BlogPost.class);
+        if (patch.getTitle() != null) {
+            update.set(root.<String>get("title"), patch.getTitle());
+        }
+        if (markdown != null) {
+            update.set(root.<String>get("markdown"), markdown);
+        }
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+        Predicate matches = cb.equal(root.get("slug"), slug);
+        if (expectedVersion != null) {
+            matches = cb.and(matches, cb.equal(root.get("version"), expectedVersion));
+        }
+        update.where(matches);
+
+        if (entityManager.createQuery(update).executeUpdate() == 0) {
+            if (blogPostRepository.findVersionBySlug(slug).isEmpty()) {
+                throw new RuntimeException("Post not found");
+            }
+            throw new PostVersionConflictException(slug);
+        }
+
+        // The bulk update bypassed the persistence context: drop anything it holds (as @Modifying(clearAutomatically)
+        // does) and read the new state back, without the body, for the response and the listeners
+        entityManager.clear();
+        BlogPost patched = blogPostRepository.findWithoutBodyBySlug(slug)
+                .orElseThrow(() -> new RuntimeException("Post not found"));
+        patched.setTags(tagService.getTags(patched.getId()));
+        if (markdown != null) {
+            patched.setMarkdown(markdown);
+            eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.Type.UPDATED, patched));
+        } else {
+            long postId = patched.getId();
+            eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.Type.UPDATED, patched,
+                    () -> blogPostRepository.findMarkdownById(postId).orElse(null)));
+        }
+        return patched;
+    }
+
+    @Transactional
     public void deletePost(String slug) {
-        BlogPost post = getPost(slug);
+        BlogPost post = findForWrite(slug);
+        tagService.removeTags(post.getId());
         blogPostRepository.delete(post);
+        eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.Type.DELETED, post));
+    }
+
+    public static boolean isReservedSlug(String slug) {
+        return slug != null && RESERVED_SLUGS.contains(slug);
+    }
+
+    private BlogPost findForWrite(String slug) {
+        return blogPostRepository.findBySlug(slug)
+                .orElseThrow(() -> new RuntimeException("Post not found"));
     }
-}
\ No newline at end of file
+}
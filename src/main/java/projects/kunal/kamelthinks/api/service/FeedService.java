@@ -0,0 +1,421 @@
+package projects.kunal.kamelthinks.api.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.feed.FeedEntry;
+import projects.kunal.kamelthinks.api.feed.FeedWriter;
+import projects.kunal.kamelthinks.api.feed.SitemapEntry;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * RSS, Atom and sitemap documents kept in memory as ready-to-send bytes.
+ * <p>
+ * The posts behind them (the newest {@code feeds.size} for the feeds; slug and lastmod of every post for
+ * the sitemap) are read once, after startup, and then kept current from {@link PostChangedEvent}s. A change
+ * only marks the documents it touches as stale; they are re-rendered by the next request for them, so a
+ * burst of writes costs one render and a poll between writes costs no query at all.
+ * <p>
+ * The sitemap is split into shards of at most {@code feeds.sitemap.shard-size} URLs (50,000 is the
+ * protocol's limit). Shards cover fixed id ranges of that size, numbered in id order with empty ranges
+ * skipped, so the layout depends only on the table and not on the order changes arrived in; an edit
+ * re-renders one shard and the index. While there is a single shard, {@code /sitemap.xml} is that shard;
+ * after that it is the sitemap index.
+ * <p>
+ * Events only cover writes made through this instance, so every {@code feeds.reconcile-interval} the summaries
+ * updated since the last reconcile are read and diffed in, and the row count is compared with the sitemap's:
+ * only when they disagree (a post deleted elsewhere) are the ids scanned. Only shards whose entries actually
+ * changed are re-rendered, so every instance converges on the same bodies and ETags.
+ */
+@Service
+public class FeedService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedService.class);
+
+    private static final int BUILD_BATCH = 1000;
+    // Re-read before the watermark: updatedAt is stamped before commit, by clocks on other instances
+    private static final Duration RECONCILE_OVERLAP = Duration.ofMinutes(1);
+    private static final int GZIP_MIN_BYTES = 1024;
+    private static final Comparator<FeedEntry> NEWEST_FIRST = Comparator.comparing(FeedEntry::createdAt)
+            .thenComparingLong(FeedEntry::id).reversed();
+
+    private final BlogPostRepository blogPostRepository;
+    private final FeedWriter writer;
+    private final int feedSize;
+    private final int summaryLength;
+    private final int shardSize;
+    private final boolean buildOnStartup;
+
+    // Everything below is guarded by this
+    private boolean built;
+    // Latest updatedAt read from the table so far
+    private LocalDateTime reconciledUpTo;
+    // Bumped by every event, so an id scan that raced with one is not applied over it
+    private long changes;
+    private final TreeSet<FeedEntry> recent = new TreeSet<>(NEWEST_FIRST);
+    private final Map<Long, FeedEntry> recentById = new HashMap<>();
+    private final TreeMap<Long, Shard> shards = new TreeMap<>();
+    private final Map<Long, Shard> shardByPost = new HashMap<>();
+    private RenderedDocument rss;
+    private RenderedDocument atom;
+    private RenderedDocument sitemapIndex;
+
+    public FeedService(BlogPostRepository blogPostRepository,
+                       @Value("${feeds.site-url:http://localhost:8080}") String siteUrl,
+                       @Value("${feeds.post-path:/posts/}") String postPath,
+                       @Value("${feeds.title:KamelThinks}") String title,
+                       @Value("${feeds.size:20}") int feedSize,
+                       @Value("${feeds.summary-length:300}") int summaryLength,
+                       @Value("${feeds.sitemap.shard-size:50000}") int shardSize,
+                       @Value("${feeds.build-on-startup:true}") boolean buildOnStartup) {
+        this.blogPostRepository = blogPostRepository;
+        this.writer = new FeedWriter(siteUrl, postPath, title, ZoneId.systemDefault());
+        this.feedSize = feedSize;
+        this.summaryLength = summaryLength;
+        this.shardSize = shardSize;
+        this.buildOnStartup = buildOnStartup;
+    }
+
+    public synchronized RenderedDocument getRss() {
+        ensureBuilt();
+        if (rss == null) {
+            List<FeedEntry> entries = List.copyOf(recent);
+            rss = render(writer.rss(entries), latest(entries));
+        }
+        return rss;
+    }
+
+    public synchronized RenderedDocument getAtom() {
+        ensureBuilt();
+        if (atom == null) {
+            List<FeedEntry> entries = List.copyOf(recent);
+            atom = render(writer.atom(entries), latest(entries));
+        }
+        return atom;
+    }
+
+    /**
+     * {@code /sitemap.xml}: the only shard, or the index once there are several.
+     */
+    public synchronized RenderedDocument getSitemap() {
+        ensureBuilt();
+        if (shards.size() <= 1) {
+            return getSitemapShard(1).orElseGet(() -> render(writer.urlset(List.of()), null));
+        }
+        if (sitemapIndex == null) {
+            List<LocalDateTime> lastModified = shards.values().stream().map(Shard::lastModified).toList();
+            sitemapIndex = render(writer.sitemapIndex(lastModified),
+                    lastModified.stream().filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(null));
+        }
+        return sitemapIndex;
+    }
+
+    /**
+     * Shard {@code number}, counting from 1, or empty if there is no such shard.
+     */
+    public synchronized Optional<RenderedDocument> getSitemapShard(int number) {
+        ensureBuilt();
+        if (number < 1 || number > shards.size()) {
+            return Optional.empty();
+        }
+        Shard shard = List.copyOf(shards.values()).get(number - 1);
+        if (shard.rendered == null) {
+            shard.rendered = render(writer.urlset(shard.entries.values()), shard.lastModified());
+        }
+        return Optional.of(shard.rendered);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        changes++;
+        // Until the first build, the build itself will read this change from the table
+        if (!built) {
+            return;
+        }
+        BlogPost post = event.getPost();
+        if (event.getType() == PostChangedEvent.Type.DELETED) {
+            removeFromSitemap(post.getId());
+            if (recentById.containsKey(post.getId())) {
+                recent.remove(recentById.remove(post.getId()));
+                refillRecent();
+                invalidateFeeds();
+            }
+        } else {
+            putInSitemap(post.getId(), new SitemapEntry(post.getSlug(), post.getUpdatedAt()));
+            // Updates keep createdAt, so a post outside the window stays outside it and its body is never needed
+            FeedEntry previous = recentById.get(post.getId());
+            if (previous == null && event.getType() == PostChangedEvent.Type.UPDATED && recent.size() >= feedSize) {
+                return;
+            }
+            FeedEntry entry = previous != null && !event.hasBody()
+                    ? new FeedEntry(post.getId(), post.getSlug(), post.getTitle(), previous.summary(),
+                            previous.createdAt(), post.getUpdatedAt())
+                    : entry(event.getPostWithBody());
+            if (offerRecent(entry)) {
+                invalidateFeeds();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup) {
+            Thread thread = new Thread(this::ensureBuilt, "feed-build");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Reads the sitemap entries in id-ordered batches (no markdown) and the newest posts for the feeds.
+     * Requests and changes arriving meanwhile wait for it.
+     */
+    public synchronized void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        for (PostSummary summary : readAllSummaries()) {
+            putInSitemap(summary.getId(), new SitemapEntry(summary.getSlug(), summary.getUpdatedAt()));
+            reconciledUpTo = later(reconciledUpTo, summary.getUpdatedAt());
+        }
+        refillRecent();
+        built = true;
+        log.info("Feeds built: {} posts in {} sitemap shards in {} ms",
+                shardByPost.size(), shards.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Picks up writes made through other instances. Costs a count and a range scan over the rows updated since
+     * the last reconcile; the ids are only read when the count shows posts deleted elsewhere. Queries run
+     * outside the lock and only the differences are applied; our own writes simply diff as empty.
+     */
+    @Scheduled(fixedDelayString = "${feeds.reconcile-interval:PT1M}",
+            initialDelayString = "${feeds.reconcile-interval:PT1M}")
+    public void reconcile() {
+        LocalDateTime since;
+        synchronized (this) {
+            if (!built) {
+                return;
+            }
+            since = reconciledUpTo;
+        }
+        // Counted first: a post created after the count is read below and only costs an id scan
+        long count = blogPostRepository.count();
+        List<PostSummary> updated = since == null
+                ? readAllSummaries()
+                : blogPostRepository.findSummariesUpdatedSince(since.minus(RECONCILE_OVERLAP));
+
+        long seen;
+        synchronized (this) {
+            applySummaries(updated);
+            if (shardByPost.size() == count) {
+                return;
+            }
+            seen = changes;
+        }
+
+        List<Long> ids = blogPostRepository.findAllIds();
+        List<Long> missing;
+        synchronized (this) {
+            // A write of ours landed during the scan, which may not include it: try again next time
+            if (changes != seen) {
+                return;
+            }
+            Set<Long> present = new HashSet<>(ids);
+            boolean feedsChanged = false;
+            for (Long postId : new ArrayList<>(shardByPost.keySet())) {
+                if (!present.contains(postId)) {
+                    removeFromSitemap(postId);
+                    feedsChanged |= removeFromRecent(postId);
+                }
+            }
+            if (feedsChanged) {
+                refillRecent();
+                invalidateFeeds();
+            }
+            missing = ids.stream().filter(id -> !shardByPost.containsKey(id)).toList();
+            seen = changes;
+        }
+
+        // Committed long after their updatedAt, so the range scans never saw them
+        if (!missing.isEmpty()) {
+            List<PostSummary> summaries = blogPostRepository.findSummariesByIdIn(missing);
+            synchronized (this) {
+                if (changes == seen) {
+                    applySummaries(summaries);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("feeds.sitemap.urls", this, feeds -> feeds.sitemapSize()).register(registry);
+        Gauge.builder("feeds.sitemap.shards", this, feeds -> feeds.shardCount()).register(registry);
+    }
+
+    synchronized int sitemapSize() {
+        return shardByPost.size();
+    }
+
+    synchronized int shardCount() {
+        return shards.size();
+    }
+
+    // Adds or replaces the post if it belongs among the newest; true if the feeds changed
+    private boolean offerRecent(FeedEntry entry) {
+        FeedEntry previous = recentById.remove(entry.id());
+        if (previous != null) {
+            recent.remove(previous);
+        } else if (recent.size() >= feedSize && NEWEST_FIRST.compare(entry, recent.last()) > 0) {
+            return false;
+        }
+        recent.add(entry);
+        recentById.put(entry.id(), entry);
+        if (recent.size() > feedSize) {
+            recentById.remove(recent.pollLast().id());
+        }
+        return true;
+    }
+
+    private List<PostSummary> readAllSummaries() {
+        List<PostSummary> all = new ArrayList<>();
+        long lastId = 0;
+        List<PostSummary> batch;
+        do {
+            batch = blogPostRepository.findSummariesAfterId(lastId, Limit.of(BUILD_BATCH));
+            all.addAll(batch);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BUILD_BATCH);
+        return all;
+    }
+
+    // Diffs summaries read from the table into the sitemap and the feeds; entries that did not change stay rendered
+    private void applySummaries(List<PostSummary> summaries) {
+        boolean feedsChanged = false;
+        for (PostSummary summary : summaries) {
+            long postId = summary.getId();
+            SitemapEntry entry = new SitemapEntry(summary.getSlug(), summary.getUpdatedAt());
+            Shard shard = shardByPost.get(postId);
+            if (shard == null || !entry.equals(shard.entries.get(postId))) {
+                putInSitemap(postId, entry);
+            }
+            FeedEntry inFeed = recentById.get(postId);
+            if (inFeed != null) {
+                // Dropped here and read back with its new body by the refill
+                if (!Objects.equals(inFeed.updatedAt(), summary.getUpdatedAt())) {
+                    feedsChanged |= removeFromRecent(postId);
+                }
+            } else if (recent.size() < feedSize || NEWEST_FIRST.compare(new FeedEntry(postId, summary.getSlug(),
+                    summary.getTitle(), null, summary.getCreatedAt(), summary.getUpdatedAt()), recent.last()) < 0) {
+                feedsChanged = true;
+            }
+            reconciledUpTo = later(reconciledUpTo, summary.getUpdatedAt());
+        }
+        if (feedsChanged) {
+            refillRecent();
+            invalidateFeeds();
+        }
+    }
+
+    private boolean removeFromRecent(long postId) {
+        FeedEntry entry = recentById.remove(postId);
+        return entry != null && recent.remove(entry);
+    }
+
+    // Only the bodies of posts not already in the window are read
+    private void refillRecent() {
+        List<PostSummary> latest = blogPostRepository.findLatestSummaries(Limit.of(feedSize));
+        List<Long> missing = latest.stream().map(PostSummary::getId).filter(id -> !recentById.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            blogPostRepository.findAllById(missing).forEach(post -> offerRecent(entry(post)));
+        }
+    }
+
+    private void putInSitemap(long postId, SitemapEntry entry) {
+        Shard shard = shardByPost.get(postId);
+        if (shard == null) {
+            shard = shards.computeIfAbsent(shardKey(postId), key -> new Shard());
+            shardByPost.put(postId, shard);
+        }
+        shard.entries.put(postId, entry);
+        shard.rendered = null;
+        sitemapIndex = null;
+    }
+
+    private void removeFromSitemap(long postId) {
+        Shard shard = shardByPost.remove(postId);
+        if (shard == null) {
+            return;
+        }
+        shard.entries.remove(postId);
+        shard.rendered = null;
+        if (shard.entries.isEmpty()) {
+            shards.remove(shardKey(postId));
+        }
+        sitemapIndex = null;
+    }
+
+    private long shardKey(long postId) {
+        return Math.floorDiv(postId - 1, shardSize);
+    }
+
+    private void invalidateFeeds() {
+        rss = null;
+        atom = null;
+    }
+
+    private FeedEntry entry(BlogPost post) {
+        return new FeedEntry(post.getId(), post.getSlug(), post.getTitle(),
+                FeedWriter.excerpt(post.getMarkdown(), summaryLength), post.getCreatedAt(), post.getUpdatedAt());
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime latest(List<FeedEntry> entries) {
+        return entries.stream().map(FeedEntry::updatedAt).max(LocalDateTime::compareTo).orElse(null);
+    }
+
+    private static RenderedDocument render(byte[] body, LocalDateTime lastModified) {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        String etag = "\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+        return new RenderedDocument(body, body.length >= GZIP_MIN_BYTES ? PostJsonCache.gzip(body) : null, etag,
+                lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static final class Shard {
+        final TreeMap<Long, SitemapEntry> entries = new TreeMap<>();
+        RenderedDocument rendered;
+
+        LocalDateTime lastModified() {
+            return entries.values().stream().map(SitemapEntry::updatedAt).filter(Objects::nonNull)
+                    .max(LocalDateTime::compareTo).orElse(null);
+        }
+    }
+}
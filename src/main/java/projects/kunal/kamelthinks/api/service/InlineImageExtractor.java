@@ -0,0 +1,64 @@
+package projects.kunal.kamelthinks.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Moves base64 {@code data:} images out of markdown and into the {@link MediaStore}, leaving a link to the
+ * stored copy behind, so post bodies (and every response that carries them) stay small. Handles both
+ * markdown images, {@code ![alt](data:image/png;base64,...)}, and HTML {@code <img src="data:...">}.
+ * Turned off with {@code media.extract-inline-images=false}.
+ */
+@Component
+public class InlineImageExtractor {
+
+    // The URI ends where base64 ends: at the closing parenthesis or quote of the surrounding syntax
+    private static final Pattern DATA_URI = Pattern.compile(
+            "data:(image/[a-z0-9.+-]+);base64,([A-Za-z0-9+/=\\s]+?)(?=[)\"'])");
+
+    private final MediaStore mediaStore;
+    private final boolean enabled;
+    private final String publicPath;
+
+    public InlineImageExtractor(MediaStore mediaStore,
+                                @Value("${media.extract-inline-images:true}") boolean enabled,
+                                @Value("${media.public-path:/api/media/}") String publicPath) {
+        this.mediaStore = mediaStore;
+        this.enabled = enabled;
+        this.publicPath = publicPath;
+    }
+
+    /**
+     * The markdown with every embedded image of an allowed type replaced by its media URL. Images of
+     * other types, and data that is not valid base64, are left as they are.
+     */
+    public String extract(String markdown) {
+        if (!enabled || markdown == null || !markdown.contains("data:image/")) {
+            return markdown;
+        }
+        Matcher matcher = DATA_URI.matcher(markdown);
+        StringBuilder out = new StringBuilder(markdown.length() / 4);
+        while (matcher.find()) {
+            String replacement = matcher.group();
+            if (mediaStore.isAllowed(matcher.group(1))) {
+                try {
+                    byte[] image = Base64.getMimeDecoder().decode(matcher.group(2));
+                    replacement = publicPath + mediaStore.store(image, matcher.group(1)).media().getHash();
+                } catch (IllegalArgumentException | MediaTooLargeException e) {
+                    // Not base64, or too big to store: keep it inline rather than reject the post
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+}
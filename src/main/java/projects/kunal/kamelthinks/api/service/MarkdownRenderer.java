@@ -0,0 +1,83 @@
+package projects.kunal.kamelthinks.api.service;
+
+import org.commonmark.Extension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.ext.heading.anchor.IdGenerator;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Heading;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.commonmark.renderer.text.TextContentRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import projects.kunal.kamelthinks.api.dto.RenderedPost;
+import projects.kunal.kamelthinks.api.dto.TocEntry;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns post markdown into HTML, a table of contents and a plain-text excerpt in a single parse.
+ * Stateless and thread-safe; caching lives in {@link RenderedPostCache}.
+ */
+@Component
+public class MarkdownRenderer {
+
+    private static final int EXCERPT_LENGTH = 280;
+
+    private final Parser parser;
+    private final HtmlRenderer htmlRenderer;
+    private final TextContentRenderer textRenderer = TextContentRenderer.builder().build();
+
+    public MarkdownRenderer(@Value("${markdown.allow-raw-html:false}") boolean allowRawHtml) {
+        List<Extension> extensions = List.of(TablesExtension.create());
+        this.parser = Parser.builder().extensions(extensions).build();
+        this.htmlRenderer = HtmlRenderer.builder()
+                .extensions(extensions)
+                .escapeHtml(!allowRawHtml)
+                .sanitizeUrls(true)
+                // The factory runs once per render, so every document gets its own id sequence,
+                // identical to the one used for the table of contents below
+                .attributeProviderFactory(context -> {
+                    IdGenerator ids = IdGenerator.builder().build();
+                    return (node, tagName, attributes) -> {
+                        if (node instanceof Heading heading) {
+                            attributes.put("id", ids.generateId(headingText(heading)));
+                        }
+                    };
+                })
+                .build();
+    }
+
+    public RenderedPost render(BlogPost post) {
+        Node document = parser.parse(post.getMarkdown() == null ? "" : post.getMarkdown());
+
+        List<TocEntry> toc = new ArrayList<>();
+        IdGenerator ids = IdGenerator.builder().build();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Heading heading) {
+                String text = headingText(heading);
+                toc.add(new TocEntry(heading.getLevel(), text, ids.generateId(text)));
+            }
+        });
+
+        return new RenderedPost(post.getSlug(), post.getTitle(), htmlRenderer.render(document), toc,
+                excerpt(textRenderer.render(document)), post.getUpdatedAt());
+    }
+
+    private String headingText(Heading heading) {
+        return textRenderer.render(heading).trim();
+    }
+
+    private static String excerpt(String text) {
+        String collapsed = text.replaceAll("\\s+", " ").trim();
+        if (collapsed.length() <= EXCERPT_LENGTH) {
+            return collapsed;
+        }
+        int cut = collapsed.lastIndexOf(' ', EXCERPT_LENGTH);
+        return collapsed.substring(0, cut > 0 ? cut : EXCERPT_LENGTH) + "…";
+    }
+}
@@ -0,0 +1,176 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import projects.kunal.kamelthinks.api.model.MediaObject;
+import projects.kunal.kamelthinks.api.repository.MediaRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed blob store: files on local disk named by the SHA-256 of their bytes
+ * ({@code root/ab/cd/abcd...}), metadata in {@link MediaObject} rows. Storing content that is already there
+ * costs the hashing and nothing else, and a stored file never changes, so it can be cached forever.
+ * <p>
+ * Uploads are streamed to a temporary file while being hashed, then moved into place atomically, so a
+ * reader never sees a partial file. Metadata rows are committed in a transaction of their own, so storing
+ * media from inside a post write neither depends on nor can poison that write's transaction; a row left
+ * behind by a post that then rolls back points at a real file and is simply unreferenced. Only the image types in {@code media.allowed-types} are accepted:
+ * anything the browser would render as a page (HTML, SVG) must never be served from our origin.
+ */
+@Service
+public class MediaStore implements MeterBinder {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MediaRepository mediaRepository;
+    private final TransactionTemplate newTransaction;
+    private final Path root;
+    private final long maxBytes;
+    private final Set<String> allowedTypes;
+    private final LoadingCache<String, Optional<MediaObject>> metadata;
+
+    public MediaStore(MediaRepository mediaRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${media.root:data/media}") Path root,
+                      @Value("${media.max-bytes:10485760}") long maxBytes,
+                      @Value("${media.allowed-types:image/png,image/jpeg,image/gif,image/webp}") Set<String> allowedTypes,
+                      @Value("${media.metadata-cache.max-size:10000}") long cacheSize) {
+        this.mediaRepository = mediaRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.root = root.toAbsolutePath();
+        this.maxBytes = maxBytes;
+        this.allowedTypes = allowedTypes;
+        // Filled by reads only. Rows never change once committed, so entries never go stale; misses are not cached
+        this.metadata = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build(hash -> mediaRepository.findById(hash));
+    }
+
+    public boolean isAllowed(String contentType) {
+        return contentType != null && allowedTypes.contains(baseType(contentType));
+    }
+
+    /**
+     * Stores the stream's bytes, or finds them already stored.
+     *
+     * @throws IllegalArgumentException if the content type is not allowed
+     * @throws MediaTooLargeException   if the stream is longer than {@code media.max-bytes}
+     */
+    public StoredMedia store(InputStream content, String contentType) throws IOException {
+        if (!isAllowed(contentType)) {
+            throw new IllegalArgumentException("Unsupported media type: " + contentType);
+        }
+        Path tmpDir = Files.createDirectories(root.resolve("tmp"));
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new MediaTooLargeException(maxBytes);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            // Straight to the table: the caller's transaction may yet roll back, so nothing is cached on this path
+            Optional<MediaObject> existing = mediaRepository.findById(hash);
+            if (existing.isPresent() && Files.exists(path(hash))) {
+                return new StoredMedia(existing.get(), false);
+            }
+            Path target = path(hash);
+            Files.createDirectories(target.getParent());
+            // Same name, same bytes: replacing a file a concurrent upload just moved in is harmless
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (existing.isPresent()) {
+                // The row outlived its file (lost from disk): the file is back, nothing else to do
+                return new StoredMedia(existing.get(), false);
+            }
+            return saveMetadata(new MediaObject(hash, baseType(contentType), size, LocalDateTime.now()));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public StoredMedia store(byte[] content, String contentType) throws IOException {
+        return store(new ByteArrayInputStream(content), contentType);
+    }
+
+    public Optional<MediaObject> find(String hash) {
+        if (!HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Optional<MediaObject> found = metadata.get(hash);
+        if (found.isEmpty()) {
+            metadata.invalidate(hash);
+        }
+        return found;
+    }
+
+    /**
+     * Where the bytes for {@code hash} live. Only call with a hash that {@link #find} accepted.
+     */
+    public Path path(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, metadata, "media.metadata");
+    }
+
+    // Two uploads of new content racing: the loser's insert hits the primary key, and the winner's row is as good.
+    // The insert runs in its own transaction: inside the caller's, the failed flush would already have marked
+    // that transaction rollback-only, and catching the exception could not save it.
+    private StoredMedia saveMetadata(MediaObject media) {
+        try {
+            return new StoredMedia(newTransaction.execute(status -> mediaRepository.saveAndFlush(media)), true);
+        } catch (DataIntegrityViolationException e) {
+            return new StoredMedia(mediaRepository.findById(media.getHash()).orElseThrow(() -> e), false);
+        }
+    }
+
+    private static String baseType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        return (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package projects.kunal.kamelthinks.api.service;
+
+/**
+ * An upload ran past {@code media.max-bytes}; nothing was stored.
+ */
+public class MediaTooLargeException extends RuntimeException {
+    public MediaTooLargeException(long maxBytes) {
+        super("Upload exceeds " + maxBytes + " bytes");
+    }
+}
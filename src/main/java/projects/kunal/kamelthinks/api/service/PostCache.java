@@ -0,0 +1,103 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.datasource.RoutingContext;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.repository.PostTagRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of posts by slug (Caffeine, W-TinyLFU eviction).
+ * <p>
+ * Loads are single-flight: concurrent misses on the same slug wait for one {@code findBySlug} instead of
+ * each querying. Unknown slugs are cached as empty for a shorter TTL ({@code 0} turns that off).
+ * Cached posts carry their tags and are shared between requests, so they must be treated as read-only.
+ * <p>
+ * For {@code datasource.routing.stickiness} after a post changes, its entry is refilled from the primary:
+ * a lagging replica would otherwise put the old version back for a whole TTL.
+ */
+@Component
+public class PostCache implements MeterBinder {
+
+    private final LoadingCache<String, Optional<BlogPost>> posts;
+    private final Cache<String, Boolean> recentlyWritten;
+
+    public PostCache(BlogPostRepository blogPostRepository,
+                     PostTagRepository postTagRepository,
+                     @Value("${posts.cache.max-size:10000}") long maxSize,
+                     @Value("${posts.cache.ttl:PT10M}") Duration ttl,
+                     @Value("${posts.cache.negative-ttl:PT30S}") Duration negativeTtl,
+                     @Value("${datasource.routing.stickiness:PT5S}") Duration stickiness) {
+        this.recentlyWritten = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(stickiness)
+                .build();
+        this.posts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<BlogPost>>() {
+                    @Override
+                    public long expireAfterCreate(String slug, Optional<BlogPost> post, long currentTime) {
+                        return (post.isPresent() ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String slug, Optional<BlogPost> post, long currentTime, long currentDuration) {
+                        return expireAfterCreate(slug, post, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String slug, Optional<BlogPost> post, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(slug -> {
+                    Supplier<Optional<BlogPost>> load = () -> blogPostRepository.findBySlug(slug).map(post -> {
+                        post.setTags(postTagRepository.findTagNamesByPostId(post.getId()));
+                        return post;
+                    });
+                    return recentlyWritten.getIfPresent(slug) == null ? load.get() : RoutingContext.onPrimary(load);
+                });
+    }
+
+    public Optional<BlogPost> get(String slug) {
+        return posts.get(slug);
+    }
+
+    /**
+     * The cached post, or null if the slug is not cached (or cached as missing). Never loads.
+     */
+    public BlogPost peek(String slug) {
+        Optional<BlogPost> cached = posts.getIfPresent(slug);
+        return cached == null ? null : cached.orElse(null);
+    }
+
+    public void invalidate(String slug) {
+        posts.invalidate(slug);
+    }
+
+    // Creates matter too: they replace a negative entry for the slug
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        recentlyWritten.put(event.getPost().getSlug(), Boolean.TRUE);
+        invalidate(event.getPost().getSlug());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, posts, "posts");
+    }
+}
@@ -0,0 +1,81 @@
+package projects.kunal.kamelthinks.api.service;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+import lombok.experimental.NonFinal;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+
+import java.util.function.Supplier;
+
+/**
+ * Published by {@link BlogPostService} after a post has been written, so derived state
+ * (render cache, indexes, feeds) can be refreshed without the service knowing about each of them.
+ * <p>
+ * A partial update that left the body alone publishes the post without its markdown. Listeners that need
+ * the body ask {@link #getMarkdown()}, which reads it once for all of them, and only if one of them asks.
+ */
+@Value
+public class PostChangedEvent {
+
+    /** {@code IMPORTED} is a create from a bulk import: listeners should skip per-post warm-up work. */
+    public enum Type { CREATED, UPDATED, DELETED, IMPORTED }
+
+    Type type;
+    BlogPost post;
+
+    // Null when the post carries its markdown
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    Supplier<String> bodyLoader;
+
+    @NonFinal
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    String loadedBody;
+
+    public PostChangedEvent(Type type, BlogPost post) {
+        this(type, post, null);
+    }
+
+    public PostChangedEvent(Type type, BlogPost post, Supplier<String> bodyLoader) {
+        this.type = type;
+        this.post = post;
+        this.bodyLoader = bodyLoader;
+    }
+
+    /**
+     * True if the post was published with its markdown, so {@link #getMarkdown()} costs nothing.
+     */
+    public boolean hasBody() {
+        return bodyLoader == null || loadedBody != null;
+    }
+
+    /**
+     * The post's markdown: the published post's own, or else read on the first call.
+     */
+    public synchronized String getMarkdown() {
+        if (bodyLoader == null) {
+            return post.getMarkdown();
+        }
+        if (loadedBody == null) {
+            loadedBody = bodyLoader.get();
+        }
+        return loadedBody;
+    }
+
+    /**
+     * The published post, or a copy carrying the markdown if it was published without it.
+     */
+    public BlogPost getPostWithBody() {
+        if (bodyLoader == null) {
+            return post;
+        }
+        return new BlogPost(post.getId(), post.getTitle(), post.getSlug(), getMarkdown(),
+                post.getCreatedAt(), post.getUpdatedAt(), post.getVersion(), post.getViews(), post.getTags());
+    }
+}
@@ -0,0 +1,61 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes posts as NDJSON (one JSON object per line) straight from a database cursor.
+ * Each post is serialized and detached before the next row is read, so memory use stays flat
+ * however large the table is.
+ */
+@Service
+public class PostExportService {
+
+    private static final byte NEWLINE = '\n';
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Exports every post, or only those with {@code updatedAt} after {@code since} (oldest change first),
+     * and returns how many were written. Incremental syncs pass the newest {@code updatedAt} they have seen.
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime since, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BlogPost.class);
+        long written = 0;
+        try (Stream<BlogPost> posts = since == null
+                ? blogPostRepository.streamAll()
+                : blogPostRepository.streamUpdatedSince(since)) {
+            Iterator<BlogPost> it = posts.iterator();
+            while (it.hasNext()) {
+                BlogPost post = it.next();
+                out.write(writer.writeValueAsBytes(post));
+                out.write(NEWLINE);
+                // Without this the persistence context would end up holding every exported row
+                entityManager.detach(post);
+                written++;
+            }
+        }
+        out.flush();
+        return written;
+    }
+}
@@ -0,0 +1,146 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import projects.kunal.kamelthinks.api.dto.PostImportError;
+import projects.kunal.kamelthinks.api.dto.PostImportResult;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Bulk-loads posts from an NDJSON stream or a JSON array without holding the input in memory.
+ * Rows are inserted in chunks of {@code posts.import.chunk-size}, each chunk in its own transaction
+ * with JDBC batching on and the persistence context cleared afterwards. A row whose slug is missing,
+ * reserved or already taken is reported and skipped; the rest of the chunk still goes in.
+ */
+@Service
+public class PostImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 500;
+
+    private final BlogPostRepository blogPostRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public PostImportService(BlogPostRepository blogPostRepository,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${posts.import.chunk-size:500}") int chunkSize) {
+        this.blogPostRepository = blogPostRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every post in {@code in}. Chunks that were committed stay committed if a later row turns
+     * out to be malformed JSON; the {@link IllegalArgumentException} then says how far the import got.
+     */
+    public PostImportResult importPosts(InputStream in) throws IOException {
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long row = 0;
+        // readValues unwraps a top-level array and otherwise reads whitespace-separated values (NDJSON)
+        try (MappingIterator<BlogPost> posts = objectMapper.readerFor(BlogPost.class).readValues(in)) {
+            while (posts.hasNextValue()) {
+                chunk.add(new Row(++row, posts.nextValue()));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed post at row " + (row + 1) + "; "
+                    + progress.imported + " posts were imported before it", e);
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+        return new PostImportResult(progress.imported, progress.rejected, progress.errors);
+    }
+
+    private void importChunk(List<Row> chunk, Progress progress) {
+        List<PostImportError> rejected = new ArrayList<>();
+        int imported = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(chunkSize);
+
+            Set<String> slugs = new HashSet<>();
+            for (Row row : chunk) {
+                if (row.post().getSlug() != null) {
+                    slugs.add(row.post().getSlug());
+                }
+            }
+            // Earlier chunks are already committed, so one query covers conflicts with them too
+            Set<String> taken = slugs.isEmpty() ? Set.of() : blogPostRepository.findExistingSlugs(slugs);
+            Set<String> seen = new HashSet<>();
+
+            LocalDateTime now = LocalDateTime.now();
+            int persisted = 0;
+            for (Row row : chunk) {
+                BlogPost post = row.post();
+                String slug = post.getSlug();
+                if (slug == null || slug.isBlank()) {
+                    rejected.add(new PostImportError(row.number(), slug, "Missing slug"));
+                } else if (BlogPostService.isReservedSlug(slug)) {
+                    rejected.add(new PostImportError(row.number(), slug, "Slug is reserved"));
+                } else if (taken.contains(slug) || !seen.add(slug)) {
+                    rejected.add(new PostImportError(row.number(), slug, "Slug already exists"));
+                } else {
+                    post.setId(null);
+                    post.setVersion(null);
+                    if (post.getCreatedAt() == null) {
+                        post.setCreatedAt(now);
+                    }
+                    if (post.getUpdatedAt() == null) {
+                        post.setUpdatedAt(post.getCreatedAt());
+                    }
+                    entityManager.persist(post);
+                    eventPublisher.publishEvent(new PostChangedEvent(PostChangedEvent.Type.IMPORTED, post));
+                    persisted++;
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return persisted;
+        });
+        // Only counted once the chunk has committed
+        progress.imported += imported;
+        rejected.forEach(progress::reject);
+    }
+
+    private record Row(long number, BlogPost post) {
+    }
+
+    private static final class Progress {
+        long imported;
+        long rejected;
+        final List<PostImportError> errors = new ArrayList<>();
+
+        void reject(PostImportError error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
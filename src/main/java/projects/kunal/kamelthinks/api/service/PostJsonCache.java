@@ -0,0 +1,92 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized (and gzipped) JSON of each post version, so a hit on {@code GET /api/posts/{slug}} skips
+ * Jackson and compression entirely. Keyed by slug, valid while {@code updatedAt} matches, bounded by bytes.
+ */
+@Component
+public class PostJsonCache implements MeterBinder {
+
+    // Below this a gzip member costs more in headers and CPU than it saves
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, SerializedPost> serialized;
+    private volatile Timer serializeTimer;
+
+    public PostJsonCache(ObjectMapper objectMapper,
+                         @Value("${posts.json-cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.serialized = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String slug, SerializedPost post) ->
+                        post.getJson().length + (post.getGzip() == null ? 0 : post.getGzip().length))
+                .recordStats()
+                .build();
+    }
+
+    public SerializedPost get(BlogPost post) {
+        SerializedPost cached = serialized.getIfPresent(post.getSlug());
+        if (cached != null && Objects.equals(cached.getUpdatedAt(), post.getUpdatedAt())) {
+            return cached;
+        }
+        SerializedPost fresh = serialize(post);
+        serialized.put(post.getSlug(), fresh);
+        return fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        serialized.invalidate(event.getPost().getSlug());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, serialized, "posts.json");
+        serializeTimer = Timer.builder("posts.json.serialize").register(registry);
+    }
+
+    private SerializedPost serialize(BlogPost post) {
+        Timer timer = serializeTimer;
+        return timer == null ? doSerialize(post) : timer.record(() -> doSerialize(post));
+    }
+
+    // Jackson plus gzip on a cache miss
+    private SerializedPost doSerialize(BlogPost post) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(post);
+            return new SerializedPost(post.getUpdatedAt(), json, json.length >= GZIP_MIN_BYTES ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize post " + post.getSlug(), e);
+        }
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+package projects.kunal.kamelthinks.api.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The post table's {@link PostListVersion}, kept in memory so list revalidations never run the aggregate.
+ * <p>
+ * Seeded from one aggregate query on first use and then moved forward by {@link PostChangedEvent}s. Events
+ * only cover writes made through this instance, so every {@code posts.list-version.refresh-interval} the
+ * aggregate is re-read; writes made elsewhere show up in the validators within that interval.
+ */
+@Component
+public class PostListVersionTracker {
+
+    private final BlogPostRepository blogPostRepository;
+
+    // Guarded by this; null until the first read
+    private PostListVersion current;
+    // Bumped by every event, so a refresh that raced with one is not applied over it
+    private long changes;
+
+    public PostListVersionTracker(BlogPostRepository blogPostRepository) {
+        this.blogPostRepository = blogPostRepository;
+    }
+
+    public synchronized PostListVersion get() {
+        if (current == null) {
+            current = blogPostRepository.findListVersion();
+        }
+        return copy(current);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPostChanged(PostChangedEvent event) {
+        changes++;
+        if (current == null) {
+            return;
+        }
+        BlogPost post = event.getPost();
+        switch (event.getType()) {
+            case CREATED, IMPORTED -> {
+                current.setCount(current.getCount() + 1);
+                current.setMaxId(current.getMaxId() == null ? post.getId() : Math.max(current.getMaxId(), post.getId()));
+                current.setLastUpdatedAt(later(current.getLastUpdatedAt(), post.getUpdatedAt()));
+            }
+            case UPDATED -> current.setLastUpdatedAt(later(current.getLastUpdatedAt(), post.getUpdatedAt()));
+            // Max id and max updatedAt are left alone: the count alone already changes the validators
+            case DELETED -> current.setCount(Math.max(0, current.getCount() - 1));
+        }
+    }
+
+    /**
+     * Re-reads the aggregate to pick up writes made through other instances. Does nothing before the first
+     * read, and keeps the in-memory version when one of our own writes arrived while the query ran.
+     */
+    @Scheduled(fixedDelayString = "${posts.list-version.refresh-interval:PT30S}",
+            initialDelayString = "${posts.list-version.refresh-interval:PT30S}")
+    public void refresh() {
+        long seen;
+        synchronized (this) {
+            if (current == null) {
+                return;
+            }
+            seen = changes;
+        }
+        PostListVersion version = blogPostRepository.findListVersion();
+        synchronized (this) {
+            if (changes == seen) {
+                current = version;
+            }
+        }
+    }
+
+    private static PostListVersion copy(PostListVersion version) {
+        return version == null ? null
+                : new PostListVersion(version.getCount(), version.getMaxId(), version.getLastUpdatedAt());
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,182 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import projects.kunal.kamelthinks.api.dto.PostVersion;
+import projects.kunal.kamelthinks.api.dto.RevisionContent;
+import projects.kunal.kamelthinks.api.dto.RevisionSummary;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.model.PostRevision;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.repository.PostRevisionRepository;
+import projects.kunal.kamelthinks.api.revision.Compression;
+import projects.kunal.kamelthinks.api.revision.Delta;
+import projects.kunal.kamelthinks.api.revision.LineDiff;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Revision history of posts. Every {@code snapshot-interval}-th revision stores the full markdown; the
+ * ones in between store a compressed line delta against their predecessor, so an edit costs roughly
+ * the size of the change and rebuilding any revision applies fewer than {@code snapshot-interval} deltas.
+ * <p>
+ * Revisions are recorded after a post change commits. Posts that existed before history was enabled,
+ * and bulk-imported posts, start their history at their next edit.
+ */
+@Service
+public class PostRevisionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostRevisionService.class);
+
+    private final PostRevisionRepository revisionRepository;
+    private final BlogPostRepository blogPostRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int snapshotInterval;
+
+    // Latest markdown per post, so recording an edit does not have to rebuild the previous revision
+    private final Cache<Long, Latest> latest;
+
+    public PostRevisionService(PostRevisionRepository revisionRepository,
+                               BlogPostRepository blogPostRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${revisions.snapshot-interval:20}") int snapshotInterval,
+                               @Value("${revisions.cache.max-chars:20000000}") long cacheMaxChars) {
+        this.revisionRepository = revisionRepository;
+        this.blogPostRepository = blogPostRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Runs from an after-commit listener, so it always needs a transaction of its own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.latest = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxChars)
+                .weigher((Long postId, Latest entry) -> entry.markdown().length())
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        BlogPost post = event.getPost();
+        try {
+            switch (event.getType()) {
+                case CREATED, UPDATED -> record(event.getPostWithBody());
+                case DELETED -> {
+                    latest.invalidate(post.getId());
+                    transactionTemplate.executeWithoutResult(status -> revisionRepository.deleteByPostId(post.getId()));
+                }
+                case IMPORTED -> {
+                }
+            }
+        } catch (RuntimeException e) {
+            // The post change itself has committed; a missing revision must not turn it into an error
+            log.warn("Could not record revision of post {}", post.getId(), e);
+        }
+    }
+
+    /**
+     * Stores the post's current title and markdown as its next revision, unless they are identical to the
+     * latest one. Serialized so concurrent edits of a post cannot claim the same revision number.
+     */
+    public synchronized void record(BlogPost post) {
+        String markdown = post.getMarkdown() == null ? "" : post.getMarkdown();
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<PostRevision> previous = revisionRepository.findTopByPostIdOrderByRevisionDesc(post.getId());
+            int number = previous.map(revision -> revision.getRevision() + 1).orElse(1);
+
+            PostRevision.Kind kind = PostRevision.Kind.SNAPSHOT;
+            byte[] data = null;
+            if (previous.isPresent()) {
+                String previousMarkdown = markdownOf(post.getId(), previous.get().getRevision());
+                if (previousMarkdown.equals(markdown) && Objects.equals(previous.get().getTitle(), post.getTitle())) {
+                    return;
+                }
+                if ((number - 1) % snapshotInterval != 0) {
+                    Delta delta = Delta.between(LineDiff.lines(previousMarkdown), LineDiff.lines(markdown), LineDiff.MAX_EDITS);
+                    if (delta != null) {
+                        data = Compression.deflate(delta.encode());
+                        kind = PostRevision.Kind.DELTA;
+                    }
+                }
+            }
+            byte[] snapshot = kind == PostRevision.Kind.SNAPSHOT || data.length > markdown.length() / 2
+                    ? Compression.deflate(markdown.getBytes(StandardCharsets.UTF_8))
+                    : null;
+            // A rewrite can make the delta bigger than the whole text; a snapshot is then cheaper and shortens the chain
+            if (snapshot != null && (data == null || snapshot.length <= data.length)) {
+                data = snapshot;
+                kind = PostRevision.Kind.SNAPSHOT;
+            }
+
+            revisionRepository.save(new PostRevision(null, post.getId(), number, kind, post.getTitle(), data,
+                    markdown.length(), LocalDateTime.now()));
+            latest.put(post.getId(), new Latest(number, markdown));
+        });
+    }
+
+    public Optional<List<RevisionSummary>> list(String slug) {
+        return postId(slug).map(revisionRepository::findSummaries);
+    }
+
+    public Optional<RevisionContent> get(String slug, int revision) {
+        return postId(slug).flatMap(postId -> {
+            List<PostRevision> chain = chain(postId, revision);
+            if (chain.isEmpty()) {
+                return Optional.empty();
+            }
+            PostRevision target = chain.get(chain.size() - 1);
+            return Optional.of(new RevisionContent(revision, target.getTitle(), rebuild(chain), target.getCreatedAt()));
+        });
+    }
+
+    /** Unified diff of the markdown between two revisions, or empty if either does not exist. */
+    public Optional<String> diff(String slug, int from, int to) {
+        Optional<RevisionContent> older = get(slug, from);
+        Optional<RevisionContent> newer = get(slug, to);
+        if (older.isEmpty() || newer.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(LineDiff.unified(LineDiff.lines(older.get().getMarkdown()), LineDiff.lines(newer.get().getMarkdown()),
+                "revision " + from, "revision " + to, 3));
+    }
+
+    private Optional<Long> postId(String slug) {
+        return blogPostRepository.findVersionBySlug(slug).map(PostVersion::getId);
+    }
+
+    private String markdownOf(Long postId, int revision) {
+        Latest cached = latest.getIfPresent(postId);
+        if (cached != null && cached.revision() == revision) {
+            return cached.markdown();
+        }
+        return rebuild(chain(postId, revision));
+    }
+
+    private List<PostRevision> chain(Long postId, int revision) {
+        return revisionRepository.findSnapshotAtOrBefore(postId, revision)
+                .map(snapshot -> revisionRepository.findChain(postId, snapshot, revision))
+                .filter(chain -> !chain.isEmpty() && chain.get(chain.size() - 1).getRevision() == revision)
+                .orElse(List.of());
+    }
+
+    private static String rebuild(List<PostRevision> chain) {
+        String markdown = new String(Compression.inflate(chain.get(0).getData()), StandardCharsets.UTF_8);
+        for (PostRevision revision : chain.subList(1, chain.size())) {
+            markdown = Delta.decode(Compression.inflate(revision.getData())).apply(LineDiff.lines(markdown));
+        }
+        return markdown;
+    }
+
+    private record Latest(int revision, String markdown) {
+    }
+}
@@ -0,0 +1,132 @@
+package projects.kunal.kamelthinks.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.dto.SearchResult;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.search.Highlighter;
+import projects.kunal.kamelthinks.api.search.InvertedIndex;
+import projects.kunal.kamelthinks.api.search.ScoredDoc;
+import projects.kunal.kamelthinks.api.search.Tokenizer;
+
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over post titles and bodies, served from an in-process {@link InvertedIndex}.
+ * The index is filled from the database once at startup (in the background) and then kept current
+ * from {@link PostChangedEvent}s.
+ */
+@Service
+public class PostSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchService.class);
+
+    static final int MAX_RESULTS = 50;
+    private static final int REBUILD_BATCH = 500;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final BlogPostRepository blogPostRepository;
+    private final InvertedIndex index;
+    private final boolean rebuildOnStartup;
+
+    // Posts deleted while a rebuild is reading the table must not be resurrected by it
+    private final Set<Long> deletedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public PostSearchService(BlogPostRepository blogPostRepository,
+                             @Value("${search.title-boost:2.5}") float titleBoost,
+                             @Value("${search.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.blogPostRepository = blogPostRepository;
+        this.index = new InvertedIndex(titleBoost);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    public List<SearchResult> search(String query, int limit) {
+        List<String> terms = Tokenizer.terms(query);
+        List<ScoredDoc> hits = index.search(terms, Math.max(1, Math.min(limit, MAX_RESULTS)));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        // Only the page of hits is read back, to build snippets
+        Map<Long, BlogPost> posts = blogPostRepository.findAllById(hits.stream().map(ScoredDoc::postId).toList())
+                .stream().collect(Collectors.toMap(BlogPost::getId, Function.identity()));
+        Set<String> termSet = new HashSet<>(terms);
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for (ScoredDoc hit : hits) {
+            BlogPost post = posts.get(hit.postId());
+            if (post != null) {
+                results.add(new SearchResult(post.getSlug(), Highlighter.highlight(post.getTitle(), termSet),
+                        Highlighter.snippet(post.getMarkdown(), termSet, SNIPPET_LENGTH), hit.score(), post.getUpdatedAt()));
+            }
+        }
+        return results;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        BlogPost post = event.getPost();
+        if (event.getType() == PostChangedEvent.Type.DELETED) {
+            if (rebuilding) {
+                deletedDuringRebuild.add(post.getId());
+            }
+            index.remove(post.getId());
+        } else {
+            index(event.getPostWithBody());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            Thread thread = new Thread(this::rebuild, "search-index-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Reads every post in id order, in batches, and indexes it. Safe to run while the app takes writes.
+     */
+    public void rebuild() {
+        rebuilding = true;
+        long started = System.currentTimeMillis();
+        try {
+            long lastId = 0;
+            List<BlogPost> batch;
+            do {
+                batch = blogPostRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH));
+                for (BlogPost post : batch) {
+                    if (!deletedDuringRebuild.contains(post.getId())) {
+                        index(post);
+                    }
+                    lastId = post.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+            log.info("Search index built: {} posts, {} terms in {} ms",
+                    index.size(), index.termCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Search index rebuild failed after {} posts", index.size(), e);
+        } finally {
+            rebuilding = false;
+            deletedDuringRebuild.clear();
+        }
+    }
+
+    private void index(BlogPost post) {
+        long version = post.getUpdatedAt() == null ? 0
+                : post.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        index.add(post.getId(), version, Tokenizer.terms(post.getTitle()), Tokenizer.terms(post.getMarkdown()));
+    }
+}
@@ -0,0 +1,10 @@
+package projects.kunal.kamelthinks.api.service;
+
+/**
+ * A conditional write named a version of the post that is no longer current.
+ */
+public class PostVersionConflictException extends RuntimeException {
+    public PostVersionConflictException(String slug) {
+        super("Post " + slug + " was modified by someone else");
+    }
+}
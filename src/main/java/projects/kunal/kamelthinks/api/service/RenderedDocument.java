@@ -0,0 +1,15 @@
+package projects.kunal.kamelthinks.api.service;
+
+import lombok.Value;
+
+/**
+ * A feed or sitemap rendered once and served as-is until the posts behind it change. {@code etag} is a
+ * strong validator over the bytes; {@code gzip} is null when the body is too small to be worth compressing.
+ */
+@Value
+public class RenderedDocument {
+    byte[] body;
+    byte[] gzip;
+    String etag;
+    long lastModified;
+}
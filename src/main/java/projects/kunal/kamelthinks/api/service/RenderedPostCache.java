@@ -0,0 +1,65 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.dto.RenderedPost;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+
+import java.util.Objects;
+
+/**
+ * Memoizes {@link MarkdownRenderer} output per post version: entries are keyed by slug and only served
+ * while their {@code updatedAt} still matches the post, so each version is rendered once.
+ * Bounded by the total size of the rendered HTML.
+ */
+@Component
+public class RenderedPostCache implements MeterBinder {
+
+    private final MarkdownRenderer renderer;
+    private final Cache<String, RenderedPost> rendered;
+
+    public RenderedPostCache(MarkdownRenderer renderer,
+                             @Value("${markdown.cache.max-chars:50000000}") long maxChars) {
+        this.renderer = renderer;
+        this.rendered = Caffeine.newBuilder()
+                .maximumWeight(maxChars)
+                .weigher((String slug, RenderedPost post) -> post.getHtml().length() + post.getExcerpt().length())
+                .recordStats()
+                .build();
+    }
+
+    public RenderedPost get(BlogPost post) {
+        RenderedPost cached = rendered.getIfPresent(post.getSlug());
+        if (cached != null && Objects.equals(cached.getUpdatedAt(), post.getUpdatedAt())) {
+            return cached;
+        }
+        RenderedPost fresh = renderer.render(post);
+        rendered.put(post.getSlug(), fresh);
+        return fresh;
+    }
+
+    // Re-render eagerly on writes so the first reader of a new version does not pay for it.
+    // Bulk imports are left to render on first read rather than stalling the import.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        BlogPost post = event.getPost();
+        // A patch that kept the body is also left to the first read, rather than reading the body back here
+        if (event.getType() == PostChangedEvent.Type.DELETED || event.getType() == PostChangedEvent.Type.IMPORTED
+                || !event.hasBody()) {
+            rendered.invalidate(post.getSlug());
+        } else {
+            rendered.put(post.getSlug(), renderer.render(post));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, rendered, "posts.rendered");
+    }
+}
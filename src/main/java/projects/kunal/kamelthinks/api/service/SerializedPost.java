@@ -0,0 +1,16 @@
+package projects.kunal.kamelthinks.api.service;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * The JSON of one post version, ready to be written to a response as-is.
+ * {@code gzip} is null when the body is too small for compression to pay off.
+ */
+@Value
+public class SerializedPost {
+    LocalDateTime updatedAt;
+    byte[] json;
+    byte[] gzip;
+}
@@ -0,0 +1,9 @@
+package projects.kunal.kamelthinks.api.service;
+
+import projects.kunal.kamelthinks.api.model.MediaObject;
+
+/**
+ * Result of {@link MediaStore#store}: {@code created} is false when the content was already stored.
+ */
+public record StoredMedia(MediaObject media, boolean created) {
+}
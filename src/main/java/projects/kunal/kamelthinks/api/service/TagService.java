@@ -0,0 +1,192 @@
+package projects.kunal.kamelthinks.api.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.dto.PostPage;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.dto.TagCount;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.model.PostTag;
+import projects.kunal.kamelthinks.api.model.Tag;
+import projects.kunal.kamelthinks.api.repository.PostTagRepository;
+import projects.kunal.kamelthinks.api.repository.TagRepository;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Tags on posts. Per-tag post counts live on the tag row and are adjusted by the writes that add or remove
+ * a post's tags, so neither the tag cloud nor a tag page ever runs {@code COUNT(*)} over the join table.
+ * The cloud itself is cached until the next post change commits (or {@code tags.cloud.ttl} passes).
+ * <p>
+ * Writes must run inside the caller's transaction, so the join rows and counts commit with the post.
+ * Two posts introducing the same new tag at the same moment race on the unique name: one of them fails
+ * and can simply be retried.
+ */
+@Service
+public class TagService implements MeterBinder {
+    static final int MAX_TAGS_PER_POST = 20;
+    static final int MAX_NAME_LENGTH = 64;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s_]+");
+    private static final Pattern VALID_NAME = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}.+#-]*");
+
+    private final TagRepository tagRepository;
+    private final PostTagRepository postTagRepository;
+    private final EntityManager entityManager;
+    private final int cloudSize;
+    private final LoadingCache<Integer, List<TagCount>> cloud;
+
+    public TagService(TagRepository tagRepository,
+                      PostTagRepository postTagRepository,
+                      EntityManager entityManager,
+                      @Value("${tags.cloud.size:100}") int cloudSize,
+                      @Value("${tags.cloud.ttl:PT1M}") Duration cloudTtl) {
+        this.tagRepository = tagRepository;
+        this.postTagRepository = postTagRepository;
+        this.entityManager = entityManager;
+        this.cloudSize = cloudSize;
+        // One entry: the top cloudSize tags, which every request slices
+        this.cloud = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(cloudTtl)
+                .recordStats()
+                .build(size -> List.copyOf(tagRepository.findTopTags(Limit.of(size))));
+    }
+
+    /**
+     * Normalizes names the way they are stored: trimmed, lower case, runs of spaces and underscores
+     * turned into {@code -}, duplicates dropped, sorted.
+     *
+     * @throws IllegalArgumentException on an empty or malformed name, or more than {@value #MAX_TAGS_PER_POST} tags
+     */
+    public static List<String> normalize(Collection<String> names) {
+        SortedSet<String> normalized = new TreeSet<>();
+        for (String name : names) {
+            normalized.add(normalize(name));
+        }
+        if (normalized.size() > MAX_TAGS_PER_POST) {
+            throw new IllegalArgumentException("A post can have at most " + MAX_TAGS_PER_POST + " tags");
+        }
+        return List.copyOf(normalized);
+    }
+
+    public static String normalize(String name) {
+        String normalized = name == null ? "" : SEPARATORS.matcher(name.trim().toLowerCase(Locale.ROOT)).replaceAll("-");
+        if (normalized.length() > MAX_NAME_LENGTH || !VALID_NAME.matcher(normalized).matches()) {
+            throw new IllegalArgumentException("Invalid tag: " + name);
+        }
+        return normalized;
+    }
+
+    /**
+     * Makes {@code names} the post's complete tag set, touching only the join rows and counts that change.
+     *
+     * @return the normalized tag names now on the post
+     */
+    @Transactional
+    public List<String> setTags(BlogPost post, Collection<String> names) {
+        List<String> wanted = normalize(names);
+        Set<Long> wantedIds = new HashSet<>();
+        for (Tag tag : findOrCreate(wanted)) {
+            wantedIds.add(tag.getId());
+        }
+        List<Long> current = postTagRepository.findTagIdsByPostId(post.getId());
+
+        List<Long> removed = current.stream().filter(id -> !wantedIds.contains(id)).toList();
+        if (!removed.isEmpty()) {
+            postTagRepository.deleteByPostIdAndTagIdIn(post.getId(), removed);
+            tagRepository.adjustPostCounts(removed, -1);
+        }
+        List<Long> added = wantedIds.stream().filter(id -> !current.contains(id)).toList();
+        if (!added.isEmpty()) {
+            for (Long tagId : added) {
+                // persist rather than save: the key is assigned, and save would SELECT first to tell new from existing
+                entityManager.persist(new PostTag(post.getId(), tagId, post.getCreatedAt()));
+            }
+            tagRepository.adjustPostCounts(added, 1);
+        }
+        return wanted;
+    }
+
+    @Transactional
+    public void removeTags(Long postId) {
+        List<Long> current = postTagRepository.findTagIdsByPostId(postId);
+        if (!current.isEmpty()) {
+            postTagRepository.deleteByPostIdAndTagIdIn(postId, current);
+            tagRepository.adjustPostCounts(current, -1);
+        }
+    }
+
+    public List<String> getTags(Long postId) {
+        return postTagRepository.findTagNamesByPostId(postId);
+    }
+
+    /**
+     * The most used tags with their post counts, largest first.
+     */
+    public List<TagCount> getTagCloud(int limit) {
+        List<TagCount> top = cloud.get(cloudSize);
+        return top.subList(0, Math.max(0, Math.min(limit, top.size())));
+    }
+
+    /**
+     * Newest-first summaries of the posts carrying {@code tag}, keyset-paginated like
+     * {@link BlogPostService#getPostSummaries}. An unknown tag is an empty page.
+     *
+     * @throws IllegalArgumentException on a malformed tag or cursor
+     */
+    public PostPage getPostsByTag(String tag, String cursor, int limit) {
+        Optional<Tag> found = tagRepository.findByName(normalize(tag));
+        if (found.isEmpty()) {
+            return new PostPage(List.of(), null);
+        }
+        Long tagId = found.get().getId();
+        int pageSize = Math.max(1, Math.min(limit, BlogPostService.MAX_PAGE_SIZE));
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<PostSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = postTagRepository.findLatestSummaries(tagId, fetch);
+        } else {
+            PostCursor after = PostCursor.decode(cursor);
+            summaries = postTagRepository.findSummariesBefore(tagId, after.createdAt(), after.id(), fetch);
+        }
+        return BlogPostService.page(summaries, pageSize);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        cloud.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cloud, "tags.cloud");
+    }
+
+    private List<Tag> findOrCreate(List<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        List<Tag> tags = new ArrayList<>(tagRepository.findByNameIn(names));
+        Set<String> existing = new HashSet<>();
+        tags.forEach(tag -> existing.add(tag.getName()));
+        List<Tag> missing = names.stream()
+                .filter(name -> !existing.contains(name))
+                .map(name -> new Tag(null, name, 0))
+                .toList();
+        tags.addAll(tagRepository.saveAll(missing));
+        return tags;
+    }
+}
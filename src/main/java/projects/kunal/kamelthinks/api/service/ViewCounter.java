@@ -0,0 +1,160 @@
+package projects.kunal.kamelthinks.api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.dto.PostViews;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind view counts. {@link #record} only bumps an in-memory {@link LongAdder}; a scheduled task
+ * adds the accumulated deltas to {@code blog_post.views} in one JDBC batch, and a last flush runs on
+ * shutdown. A crash loses at most one flush interval of views.
+ * The most-viewed ranking is recomputed from memory after each flush, so reading it never hits the table
+ * for counts.
+ */
+@Component
+public class ViewCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCounter.class);
+    static final int MAX_TOP = 100;
+
+    private final Map<Long, Counts> counts = new ConcurrentHashMap<>();
+    private volatile List<PostViews> top = List.of();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    public void record(Long postId) {
+        Counts postCounts = counts.get(postId);
+        if (postCounts == null) {
+            postCounts = counts.computeIfAbsent(postId, id -> new Counts());
+        }
+        postCounts.pending.increment();
+    }
+
+    /** Flushed plus not-yet-flushed views of one post. */
+    public long views(Long postId) {
+        Counts postCounts = counts.get(postId);
+        return postCounts == null ? 0 : postCounts.total();
+    }
+
+    /** The {@code limit} most-viewed posts as of the last flush. */
+    public List<PostViews> top(int limit) {
+        List<PostViews> snapshot = top;
+        return snapshot.subList(0, Math.min(Math.max(limit, 0), snapshot.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadPersistedCounts() {
+        jdbcTemplate.query("select id, views from blog_post where views > 0", rs -> {
+            counts.computeIfAbsent(rs.getLong(1), id -> new Counts()).persisted += rs.getLong(2);
+        });
+        refreshTop();
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval:PT10S}", initialDelayString = "${views.flush-interval:PT10S}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<Counts> flushed = new ArrayList<>();
+        for (Map.Entry<Long, Counts> entry : counts.entrySet()) {
+            LongAdder pending = entry.getValue().pending;
+            // sum-then-subtract rather than sumThenReset: increments racing with the flush are kept, not lost
+            long delta = pending.sum();
+            if (delta > 0) {
+                pending.add(-delta);
+                batch.add(new Object[]{delta, entry.getKey()});
+                flushed.add(entry.getValue());
+            }
+        }
+        if (!batch.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate("update blog_post set views = views + ? where id = ?", batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    flushed.get(i).persisted += (long) batch.get(i)[0];
+                }
+            } catch (DataAccessException e) {
+                // Put the deltas back so the next flush retries them
+                for (int i = 0; i < batch.size(); i++) {
+                    flushed.get(i).pending.add((long) batch.get(i)[0]);
+                }
+                log.warn("Could not flush {} view counts, will retry", batch.size(), e);
+            }
+        }
+        refreshTop();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.getType() == PostChangedEvent.Type.DELETED) {
+            counts.remove(event.getPost().getId());
+        }
+    }
+
+    private void refreshTop() {
+        PriorityQueue<Map.Entry<Long, Long>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Counts> entry : counts.entrySet()) {
+            long total = entry.getValue().total();
+            if (total == 0) {
+                continue;
+            }
+            if (best.size() < MAX_TOP) {
+                best.add(Map.entry(entry.getKey(), total));
+            } else if (total > best.peek().getValue()) {
+                best.poll();
+                best.add(Map.entry(entry.getKey(), total));
+            }
+        }
+        if (best.isEmpty()) {
+            top = List.of();
+            return;
+        }
+
+        Map<Long, PostSummary> summaries = blogPostRepository.findSummariesByIdIn(
+                        best.stream().map(Map.Entry::getKey).toList()).stream()
+                .collect(Collectors.toMap(PostSummary::getId, Function.identity()));
+        List<Map.Entry<Long, Long>> ranked = new ArrayList<>(best);
+        ranked.sort(Map.Entry.<Long, Long>comparingByValue().reversed());
+        List<PostViews> snapshot = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Long> entry : ranked) {
+            PostSummary summary = summaries.get(entry.getKey());
+            if (summary != null) {
+                snapshot.add(new PostViews(summary.getId(), summary.getSlug(), summary.getTitle(), entry.getValue()));
+            }
+        }
+        top = List.copyOf(snapshot);
+    }
+
+    private static final class Counts {
+        final LongAdder pending = new LongAdder();
+        // Only written under the flush lock (or before the first flush); read racily for rankings
+        volatile long persisted;
+
+        long total() {
+            return persisted + pending.sum();
+        }
+    }
+}
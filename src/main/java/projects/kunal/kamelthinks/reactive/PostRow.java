@@ -0,0 +1,36 @@
+package projects.kunal.kamelthinks.reactive;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A {@code blog_post} row as the servlet app's {@code BlogPost} serializes it, so both deployables return
+ * the same JSON. Read-only: the table belongs to the JPA side.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("blog_post")
+public class PostRow {
+    @Id
+    private Long id;
+    private String title;
+    private String slug;
+    private String markdown;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+
+    // From post_tag, on single-post reads only, as BlogPost's tags are
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> tags;
+}
@@ -0,0 +1,52 @@
+package projects.kunal.kamelthinks.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/posts")
+public class ReactivePostController {
+
+    @Autowired
+    private ReactivePostRepository postRepository;
+
+    @Value("${reactive.posts.page-size:100}")
+    private int pageSize;
+
+    /**
+     * Every post, in id order, as a JSON array or as NDJSON. Rows are fetched a keyset page at a time and
+     * only when the client has taken the previous page, so a slow reader holds neither a thread nor a
+     * database connection while it catches up.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PostRow> getAll() {
+        return page(0L)
+                .expand(rows -> rows.size() < pageSize ? Mono.empty() : page(rows.get(rows.size() - 1).getId()))
+                .concatMapIterable(rows -> rows);
+    }
+
+    @GetMapping("/{slug}")
+    public Mono<ResponseEntity<PostRow>> getOne(@PathVariable String slug) {
+        return postRepository.findBySlug(slug)
+                .flatMap(post -> postRepository.findTagNames(post.getId()).collectList().map(tags -> {
+                    post.setTags(tags);
+                    return post;
+                }))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<List<PostRow>> page(long afterId) {
+        return postRepository.findPageAfter(afterId, pageSize).collectList();
+    }
+}
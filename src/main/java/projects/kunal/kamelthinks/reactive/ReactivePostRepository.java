@@ -0,0 +1,20 @@
+package projects.kunal.kamelthinks.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactivePostRepository extends ReactiveCrudRepository<PostRow, Long> {
+
+    Mono<PostRow> findBySlug(String slug);
+
+    // Keyset page: each page borrows a connection only for its own query
+    @Query("select * from blog_post where id > :afterId order by id limit :limit")
+    Flux<PostRow> findPageAfter(long afterId, int limit);
+
+    @Query("select t.name from post_tag pt join tag t on t.id = pt.tag_id where pt.post_id = :postId order by t.name")
+    Flux<String> findTagNames(long postId);
+}
@@ -0,0 +1,36 @@
+package projects.kunal.kamelthinks.reactive;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Read-only, non-blocking deployable serving {@code GET /api/posts} and {@code GET /api/posts/{slug}} on
+ * WebFlux and R2DBC, next to the servlet app that owns writes and the schema. A slow client here costs a
+ * socket and some buffer, not a Tomcat thread and a pooled JDBC connection; route read traffic to it at
+ * the load balancer.
+ * <p>
+ * Configured from {@code reactive.properties} rather than {@code application.properties}. Start it from
+ * the same artifact with, for example, {@code mvn spring-boot:run
+ * -Dspring-boot.run.main-class=projects.kunal.kamelthinks.reactive.ReactiveReadApplication}.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        ReactiveUserDetailsServiceAutoConfiguration.class})
+public class ReactiveReadApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveReadApplication.class)
+                .properties("spring.config.name=reactive")
+                .run(args);
+    }
+
+    // Tomcat is on the classpath for the servlet app and Boot would otherwise prefer it here too
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
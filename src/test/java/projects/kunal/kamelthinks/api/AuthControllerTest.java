@@ -7,32 +7,57 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 import projects.kunal.kamelthinks.api.controller.AuthController;
 import projects.kunal.kamelthinks.api.dto.AuthRequest;
+import projects.kunal.kamelthinks.api.dto.ChangePasswordRequest;
 import projects.kunal.kamelthinks.api.model.User;
 import projects.kunal.kamelthinks.api.repository.UserRepository;
 import projects.kunal.kamelthinks.api.security.JwtUtil;
+import projects.kunal.kamelthinks.api.security.LoginThrottle;
+import projects.kunal.kamelthinks.api.security.PasswordHashingExecutor;
+import projects.kunal.kamelthinks.api.security.TokenRevocationService;
+import projects.kunal.kamelthinks.api.security.UserCredentialsChangedEvent;
+import projects.kunal.kamelthinks.api.security.VerifiedToken;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 // Add AutoConfigureMockMvc with addFilters = false
 @WebMvcTest(AuthController.class)
 @AutoConfigureMockMvc(addFilters = false) // <--- THIS IS THE KEY CHANGE
+@RecordApplicationEvents
+@Import({PasswordHashingExecutor.class, LoginThrottle.class})
 class AuthControllerTest {
 
     @Autowired
@@ -53,6 +78,15 @@ class AuthControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
 
+    @MockBean
+    private TokenRevocationService tokenRevocation;
+
+    @SpyBean
+    private PasswordHashingExecutor passwordHashing;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private AuthRequest authRequest;
     private User user;
 
@@ -81,6 +115,8 @@ class AuthControllerTest {
         verify(userRepository, times(1)).findByUsername(authRequest.getUsername());
         verify(passwordEncoder, times(1)).encode(authRequest.getPassword());
         verify(userRepository, times(1)).save(any(User.class));
+        assertEquals(1, applicationEvents.stream(UserCredentialsChangedEvent.class)
+                .filter(event -> event.getUsername().equals(authRequest.getUsername())).count());
     }
 
     @Test
@@ -133,6 +169,135 @@ class AuthControllerTest {
         verify(jwtUtil, never()).generateToken(anyString());
     }
 
+    @Test
+    void loginUser_hashingPoolSaturated() throws Exception {
+        doThrow(new RejectedExecutionException("saturated")).when(passwordHashing).run(any());
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequest))
+                        .with(csrf()))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(authenticationManager, never()).authenticate(any());
+        verify(jwtUtil, never()).generateToken(anyString());
+    }
+
+    @Test
+    void loginUser_throttledAfterRepeatedFailures() throws Exception {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Invalid credentials"));
+        String body = objectMapper.writeValueAsString(new AuthRequest("guessed", "wrong"));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        verify(authenticationManager, times(5)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+    }
+
+    @Test
+    void loginUser_concurrentGuessesCannotOvershootTheThrottle() throws Exception {
+        AtomicInteger verifications = new AtomicInteger();
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenAnswer(invocation -> {
+            verifications.incrementAndGet();
+            Thread.sleep(50); // stands in for BCrypt, so every guess is in flight at once
+            throw new BadCredentialsException("Invalid credentials");
+        });
+        String body = objectMapper.writeValueAsString(new AuthRequest("targeted", "wrong"));
+
+        int guesses = 20;
+        ExecutorService clients = Executors.newFixedThreadPool(guesses);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < guesses; i++) {
+            statuses.add(clients.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        int unauthorized = 0;
+        int throttled = 0;
+        for (Future<Integer> status : statuses) {
+            int code = status.get(10, TimeUnit.SECONDS);
+            if (code == 401) {
+                unauthorized++;
+            } else if (code == 429) {
+                throttled++;
+            }
+        }
+        clients.shutdown();
+
+        assertEquals(5, verifications.get());
+        assertEquals(5, unauthorized);
+        assertEquals(guesses - 5, throttled);
+    }
+
+    @Test
+    void changePassword_success() throws Exception {
+        ChangePasswordRequest request = new ChangePasswordRequest("testuser", "password", "newPassword");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(mock(Authentication.class));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("newPassword")).thenReturn("newEncodedPassword");
+
+        mockMvc.perform(post("/api/auth/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Password changed successfully"));
+
+        verify(userRepository, times(1)).save(argThat(saved -> "newEncodedPassword".equals(saved.getPassword())));
+        verify(tokenRevocation).revokeAllIssuedBefore(eq("testuser"), any());
+        assertEquals(1, applicationEvents.stream(UserCredentialsChangedEvent.class)
+                .filter(event -> event.getUsername().equals("testuser")).count());
+    }
+
+    @Test
+    void changePassword_invalidCredentials() throws Exception {
+        ChangePasswordRequest request = new ChangePasswordRequest("testuser", "wrong", "newPassword");
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Invalid credentials"));
+
+        mockMvc.perform(post("/api/auth/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isUnauthorized());
+
+        verify(userRepository, never()).save(any(User.class));
+        assertEquals(0, applicationEvents.stream(UserCredentialsChangedEvent.class).count());
+    }
+
+    @Test
+    void changePassword_sharesTheLoginThrottle() throws Exception {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Invalid credentials"));
+        String body = objectMapper.writeValueAsString(new ChangePasswordRequest("guessedpw", "wrong", "newPassword"));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/auth/password").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/api/auth/password").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AuthRequest("guessedpw", "wrong"))))
+                .andExpect(status().isTooManyRequests());
+
+        verify(authenticationManager, times(5)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void validateToken_success() throws Exception {
         String token = "mocked_jwt_token";
@@ -149,4 +314,27 @@ class AuthControllerTest {
 
         verify(jwtUtil, times(1)).getUsernameFromToken(token);
     }
-}
\ No newline at end of file
+
+    @Test
+    void logout_revokesPresentedToken() throws Exception {
+        VerifiedToken token = new VerifiedToken("testuser", new Date(), new Date(System.currentTimeMillis() + 60_000), "jti-1");
+        when(jwtUtil.verifyToken("mocked_jwt_token")).thenReturn(token);
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer mocked_jwt_token"))
+                .andExpect(status().isOk());
+
+        verify(tokenRevocation).revoke(token);
+    }
+
+    @Test
+    void logout_rejectsAlreadyRevokedToken() throws Exception {
+        VerifiedToken token = new VerifiedToken("testuser", new Date(), new Date(System.currentTimeMillis() + 60_000), "jti-1");
+        when(jwtUtil.verifyToken("mocked_jwt_token")).thenReturn(token);
+        when(tokenRevocation.isRevoked(token)).thenReturn(true);
+
+        mockMvc.perform(post("/api/auth/logout-all").header("Authorization", "Bearer mocked_jwt_token"))
+                .andExpect(status().isUnauthorized());
+
+        verify(tokenRevocation, never()).revokeAllIssuedBefore(anyString(), any());
+    }
+}
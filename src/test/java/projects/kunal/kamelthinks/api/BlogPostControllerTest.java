@@ -7,32 +7,58 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import projects.kunal.kamelthinks.api.controller.BlogPostController;
+import projects.kunal.kamelthinks.api.dto.PostImportError;
+import projects.kunal.kamelthinks.api.dto.PostImportResult;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.dto.PostPatch;
+import projects.kunal.kamelthinks.api.dto.PostPage;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.dto.PostVersion;
+import projects.kunal.kamelthinks.api.dto.PostViews;
 import projects.kunal.kamelthinks.api.model.BlogPost;
 import projects.kunal.kamelthinks.api.repository.UserRepository;
 import projects.kunal.kamelthinks.api.security.JwtUtil;
+import projects.kunal.kamelthinks.api.security.TokenRevocationService;
 import projects.kunal.kamelthinks.api.service.BlogPostService;
-
+import projects.kunal.kamelthinks.api.service.PostExportService;
+import projects.kunal.kamelthinks.api.service.PostImportService;
+import projects.kunal.kamelthinks.api.service.PostJsonCache;
+import projects.kunal.kamelthinks.api.service.PostVersionConflictException;
+import projects.kunal.kamelthinks.api.service.ViewCounter;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BlogPostController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(PostJsonCache.class)
 class BlogPostControllerTest {
 
     @Autowired
@@ -44,6 +70,15 @@ class BlogPostControllerTest {
     @MockBean
     private BlogPostService blogPostService;
 
+    @MockBean
+    private PostExportService postExportService;
+
+    @MockBean
+    private PostImportService postImportService;
+
+    @MockBean
+    private ViewCounter viewCounter;
+
     // --- ADD THESE MOCKBEANS ---
     // Even if BlogPostController doesn't directly use them, the test context
     // tries to load security-related beans like JwtFilter, which have these dependencies.
@@ -58,6 +93,9 @@ class BlogPostControllerTest {
 
     @MockBean
     private AuthenticationManager authenticationManager; // Also part of the security chain
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService; // JwtFilter checks revoked tokens
     // --- END ADDITIONS ---
 
     private BlogPost blogPost1;
@@ -97,18 +135,63 @@ class BlogPostControllerTest {
         verify(blogPostService, times(1)).createPost(any(BlogPost.class));
     }
 
+    @Test
+    void createBlogPost_invalidTag() throws Exception {
+        when(blogPostService.createPost(any(BlogPost.class))).thenThrow(new IllegalArgumentException("Invalid tag: ??"));
+
+        mockMvc.perform(post("/api/posts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"T\",\"slug\":\"t\",\"tags\":[\"??\"]}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getAllBlogPosts_success() throws Exception {
         List<BlogPost> allPosts = Arrays.asList(blogPost1, blogPost2);
-        when(blogPostService.getAllPosts()).thenReturn(allPosts);
+        when(blogPostService.getPosts(0L, 20)).thenReturn(allPosts);
 
         mockMvc.perform(get("/api/posts"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("Deprecation", "true"))
+                .andExpect(header().string("Link", "</api/posts/summaries>; rel=\"successor-version\""))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].title", is(blogPost1.getTitle())))
                 .andExpect(jsonPath("$[1].title", is(blogPost2.getTitle())));
 
-        verify(blogPostService, times(1)).getAllPosts();
+        verify(blogPostService, times(1)).getPosts(0L, 20);
+    }
+
+    @Test
+    void getAllBlogPosts_pagesAfterTheGivenId() throws Exception {
+        when(blogPostService.getPosts(1L, 5)).thenReturn(List.of(blogPost2));
+
+        mockMvc.perform(get("/api/posts").param("afterId", "1").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is(blogPost2.getTitle())));
+    }
+
+    @Test
+    void getSummaries_success() throws Exception {
+        PostSummary summary = new PostSummary(2L, "Second Post", "second-post",
+                blogPost2.getCreatedAt(), blogPost2.getUpdatedAt());
+        when(blogPostService.getPostSummaries(null, 20)).thenReturn(new PostPage(List.of(summary), "next"));
+
+        mockMvc.perform(get("/api/posts/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].slug", is("second-post")))
+                .andExpect(jsonPath("$.items[0].markdown").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    void getSummaries_invalidCursor() throws Exception {
+        when(blogPostService.getPostSummaries("bogus", 20)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/posts/summaries").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -121,6 +204,120 @@ class BlogPostControllerTest {
                 .andExpect(jsonPath("$.slug", is(blogPost1.getSlug())));
 
         verify(blogPostService, times(1)).getPost(blogPost1.getSlug());
+        verify(viewCounter, times(1)).record(blogPost1.getId());
+    }
+
+    @Test
+    void getPopular_servesRankingFromViewCounter() throws Exception {
+        when(viewCounter.top(2)).thenReturn(List.of(new PostViews(2L, "second-blog-post", "Second Blog Post", 42)));
+
+        mockMvc.perform(get("/api/posts/popular").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].slug", is("second-blog-post")))
+                .andExpect(jsonPath("$[0].views", is(42)));
+    }
+
+    @Test
+    void getOneBlogPost_servesGzipWhenAccepted() throws Exception {
+        blogPost1.setMarkdown("Camels are even-toed ungulates. ".repeat(200));
+        when(blogPostService.getPost(blogPost1.getSlug())).thenReturn(blogPost1);
+
+        byte[] gzipped = mockMvc.perform(get("/api/posts/{slug}", blogPost1.getSlug())
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            BlogPost decoded = objectMapper.readValue(in, BlogPost.class);
+            assertEquals(blogPost1.getMarkdown(), decoded.getMarkdown());
+        }
+
+        mockMvc.perform(get("/api/posts/{slug}", blogPost1.getSlug()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.slug", is(blogPost1.getSlug())));
+    }
+
+    @Test
+    void exportPosts_streamsNdjsonSinceGivenTime() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(postExportService.export(eq(since), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write((objectMapper.writeValueAsString(blogPost1) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.write((objectMapper.writeValueAsString(blogPost2) + "\n").getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/posts/export").param("since", "2024-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(blogPost2.getSlug(), objectMapper.readValue(lines[1], BlogPost.class).getSlug());
+    }
+
+    @Test
+    void importPosts_reportsRejectedRows() throws Exception {
+        when(postImportService.importPosts(any())).thenReturn(new PostImportResult(1, 1,
+                List.of(new PostImportError(2, "first-blog-post", "Slug already exists"))));
+
+        mockMvc.perform(post("/api/posts/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(blogPost1) + "\n" + objectMapper.writeValueAsString(blogPost1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)));
+    }
+
+    @Test
+    void getOneBlogPost_notModifiedWithoutLoadingBody() throws Exception {
+        PostVersion version = new PostVersion(1L, blogPost1.getUpdatedAt(), 0L);
+        when(blogPostService.getPostVersion(blogPost1.getSlug())).thenReturn(Optional.of(version));
+        when(blogPostService.getPost(blogPost1.getSlug())).thenReturn(blogPost1);
+
+        String etag = mockMvc.perform(get("/api/posts/{slug}", blogPost1.getSlug()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/posts/{slug}", blogPost1.getSlug())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(blogPostService, times(1)).getPost(blogPost1.getSlug());
+    }
+
+    @Test
+    void getOneBlogPost_modifiedSinceReturnsBody() throws Exception {
+        PostVersion version = new PostVersion(1L, blogPost1.getUpdatedAt(), 0L);
+        when(blogPostService.getPostVersion(blogPost1.getSlug())).thenReturn(Optional.of(version));
+        when(blogPostService.getPost(blogPost1.getSlug())).thenReturn(blogPost1);
+
+        mockMvc.perform(get("/api/posts/{slug}", blogPost1.getSlug())
+                        .header("If-None-Match", "\"1-v7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.slug", is(blogPost1.getSlug())));
+    }
+
+    @Test
+    void getAllBlogPosts_notModified() throws Exception {
+        when(blogPostService.getListVersion())
+                .thenReturn(new PostListVersion(2, 2L, blogPost2.getUpdatedAt()));
+
+        String etag = mockMvc.perform(get("/api/posts"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/posts").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(blogPostService, times(1)).getPosts(0L, 20);
     }
 
     @Test
@@ -155,6 +352,38 @@ class BlogPostControllerTest {
         verify(blogPostService, times(1)).updatePost(eq(blogPost1.getSlug()), any(BlogPost.class));
     }
 
+    @Test
+    void updateBlogPost_staleIfMatchIsRejected() throws Exception {
+        when(blogPostService.updatePost(eq(blogPost1.getSlug()), any(BlogPost.class), eq(3L)))
+                .thenThrow(new PostVersionConflictException(blogPost1.getSlug()));
+
+        mockMvc.perform(put("/api/posts/{slug}", blogPost1.getSlug())
+                        .header("If-Match", "\"1-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(blogPost1)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(blogPostService, never()).updatePost(any(), any());
+    }
+
+    @Test
+    void patchBlogPost_returnsNewEtag() throws Exception {
+        blogPost1.setVersion(4L);
+        when(blogPostService.patchPost(eq(blogPost1.getSlug()), any(PostPatch.class), eq(3L))).thenReturn(blogPost1);
+
+        mockMvc.perform(patch("/api/posts/{slug}", blogPost1.getSlug())
+                        .header("If-Match", "\"1-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Only the title\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-v4\""));
+
+        mockMvc.perform(patch("/api/posts/{slug}", blogPost1.getSlug())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateBlogPost_notFound() throws Exception {
         when(blogPostService.updatePost(eq("non-existent-slug"), any(BlogPost.class)))
@@ -0,0 +1,254 @@
+package projects.kunal.kamelthinks.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import projects.kunal.kamelthinks.api.dto.PostImportError;
+import projects.kunal.kamelthinks.api.dto.PostImportResult;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.dto.PostPage;
+import projects.kunal.kamelthinks.api.dto.PostPatch;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.dto.PostVersion;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.service.BlogPostService;
+import projects.kunal.kamelthinks.api.service.InlineImageExtractor;
+import projects.kunal.kamelthinks.api.service.MarkdownRenderer;
+import projects.kunal.kamelthinks.api.service.MediaStore;
+import projects.kunal.kamelthinks.api.service.PostCache;
+import projects.kunal.kamelthinks.api.service.PostExportService;
+import projects.kunal.kamelthinks.api.service.PostImportService;
+import projects.kunal.kamelthinks.api.service.PostListVersionTracker;
+import projects.kunal.kamelthinks.api.service.PostVersionConflictException;
+import projects.kunal.kamelthinks.api.service.RenderedPostCache;
+import projects.kunal.kamelthinks.api.service.TagService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BlogPostService.class, PostCache.class, RenderedPostCache.class, MarkdownRenderer.class, PostExportService.class,
+        PostImportService.class, TagService.class, InlineImageExtractor.class, MediaStore.class, PostListVersionTracker.class})
+@TestPropertySource(properties = "posts.import.chunk-size=3")
+class BlogPostRepositoryTest {
+
+    @TempDir
+    static Path mediaRoot;
+
+    @DynamicPropertySource
+    static void mediaProperties(DynamicPropertyRegistry registry) {
+        registry.add("media.root", mediaRoot::toString);
+    }
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Autowired
+    private PostExportService postExportService;
+
+    @Autowired
+    private PostImportService postImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<BlogPost> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            BlogPost post = new BlogPost();
+            post.setTitle("Post " + i);
+            post.setSlug("post-" + i);
+            post.setMarkdown("Body " + i);
+            // Pairs of posts share a timestamp so the id tie-breaker is exercised
+            post.setCreatedAt(base.plusMinutes(i / 2));
+            post.setUpdatedAt(base.plusMinutes(i / 2));
+            saved.add(blogPostRepository.save(post));
+        }
+    }
+
+    @Test
+    void getPostSummaries_walksEveryPostNewestFirstWithoutGapsOrDuplicates() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PostPage page = blogPostService.getPostSummaries(cursor, 3);
+            page.getItems().forEach(summary -> seen.add(summary.getSlug()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("post-6", "post-5", "post-4", "post-3", "post-2", "post-1", "post-0"), seen);
+    }
+
+    @Test
+    void getPosts_pagesInIdOrderAndCapsTheLimit() {
+        List<BlogPost> first = blogPostService.getPosts(0, 3);
+        assertEquals(List.of("post-0", "post-1", "post-2"), first.stream().map(BlogPost::getSlug).toList());
+        assertEquals("Body 0", first.get(0).getMarkdown());
+
+        List<BlogPost> rest = blogPostService.getPosts(first.get(2).getId(), 3);
+        assertEquals(List.of("post-3", "post-4", "post-5"), rest.stream().map(BlogPost::getSlug).toList());
+
+        assertEquals(1, blogPostService.getPosts(0, 0).size());
+        assertEquals(7, blogPostService.getPosts(0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void findLatestSummaries_returnsSummaryFieldsOnly() {
+        PostSummary latest = blogPostService.getPostSummaries(null, 1).getItems().get(0);
+
+        assertEquals(saved.get(6).getId(), latest.getId());
+        assertEquals("Post 6", latest.getTitle());
+        assertNotNull(latest.getCreatedAt());
+    }
+
+    @Test
+    void versionQueries_reflectTheTableWithoutLoadingBodies() {
+        PostVersion version = blogPostRepository.findVersionBySlug("post-3").orElseThrow();
+        PostListVersion listVersion = blogPostRepository.findListVersion();
+
+        assertEquals(saved.get(3).getId(), version.getId());
+        assertEquals(saved.get(3).getUpdatedAt(), version.getUpdatedAt());
+        assertEquals(7, listVersion.getCount());
+        assertEquals(saved.get(6).getId(), listVersion.getMaxId());
+        assertEquals(saved.get(6).getUpdatedAt(), listVersion.getLastUpdatedAt());
+    }
+
+    @Test
+    void reconcileQueries_readOnlyRecentRowsAndIds() {
+        List<PostSummary> updated = blogPostRepository.findSummariesUpdatedSince(LocalDateTime.of(2024, 1, 1, 12, 2));
+
+        assertEquals(3, updated.size());
+        assertFalse(updated.get(0).getUpdatedAt().isAfter(updated.get(2).getUpdatedAt()));
+        assertEquals(saved.stream().map(BlogPost::getId).sorted().toList(), blogPostRepository.findAllIds());
+    }
+
+    @Test
+    void export_writesOneLinePerPostAndSupportsIncrementalMode() throws Exception {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        assertEquals(7, postExportService.export(null, all));
+        String[] lines = all.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(7, lines.length);
+        assertEquals("post-0", objectMapper.readValue(lines[0], BlogPost.class).getSlug());
+
+        ByteArrayOutputStream changed = new ByteArrayOutputStream();
+        assertEquals(3, postExportService.export(LocalDateTime.of(2024, 1, 1, 12, 1), changed));
+        List<String> slugs = new ArrayList<>();
+        for (String line : changed.toString(StandardCharsets.UTF_8).split("\n")) {
+            slugs.add(objectMapper.readValue(line, BlogPost.class).getSlug());
+        }
+        assertEquals(List.of("post-4", "post-5", "post-6"), slugs);
+    }
+
+    @Test
+    void importPosts_insertsAcrossChunksAndReportsSlugConflicts() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (String slug : List.of("imported-1", "post-2", "imported-2", "imported-1", "imported-3", "imported-4", "")) {
+            ndjson.append("{\"title\":\"T\",\"slug\":\"").append(slug).append("\",\"markdown\":\"Body\"}\n");
+        }
+
+        PostImportResult result = postImportService.importPosts(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(2L, 4L, 7L), result.getErrors().stream().map(PostImportError::getRow).toList());
+        assertEquals(11, blogPostRepository.count());
+        assertNotNull(blogPostRepository.findBySlug("imported-4").orElseThrow().getCreatedAt());
+    }
+
+    @Test
+    void importPosts_acceptsJsonArray() throws Exception {
+        String array = "[{\"title\":\"A\",\"slug\":\"array-a\"},{\"title\":\"B\",\"slug\":\"array-b\"}]";
+
+        PostImportResult result = postImportService.importPosts(
+                new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getImported());
+        assertTrue(blogPostRepository.findBySlug("array-b").isPresent());
+    }
+
+    @Test
+    void importPosts_rejectsReservedSlugs() throws Exception {
+        String array = "[{\"title\":\"A\",\"slug\":\"tags\"},{\"title\":\"B\",\"slug\":\"not-reserved\"}]";
+
+        PostImportResult result = postImportService.importPosts(
+                new ByteArrayInputStream(array.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(new PostImportError(1, "tags", "Slug is reserved")), result.getErrors());
+        assertTrue(blogPostRepository.findBySlug("tags").isEmpty());
+    }
+
+    @Test
+    void patchPost_writesGivenFieldsAndBumpsVersion() {
+        BlogPost before = saved.get(2);
+        long version = before.getVersion();
+
+        BlogPost patched = blogPostService.patchPost("post-2", new PostPatch("Retitled", null), version);
+
+        assertEquals("Retitled", patched.getTitle());
+        // The body was neither written nor read back
+        assertNull(patched.getMarkdown());
+        assertEquals("Body 2", blogPostRepository.findMarkdownById(patched.getId()).orElseThrow());
+        assertEquals(version + 1, patched.getVersion());
+        assertThrows(PostVersionConflictException.class,
+                () -> blogPostService.patchPost("post-2", new PostPatch("Again", null), version));
+        assertThrows(RuntimeException.class,
+                () -> blogPostService.patchPost("missing", new PostPatch("Again", null), null));
+    }
+
+    @Test
+    void patchPost_movesInlineImagesOutOfThePatchedBody() {
+        String png = Base64.getEncoder().encodeToString("\u0089PNG patched image".getBytes(StandardCharsets.ISO_8859_1));
+
+        BlogPost patched = blogPostService.patchPost("post-4", new PostPatch(null, "![x](data:image/png;base64," + png + ")"), null);
+
+        assertTrue(patched.getMarkdown().matches("!\\[x]\\(/api/media/[0-9a-f]{64}\\)"), patched.getMarkdown());
+        assertEquals(patched.getMarkdown(), blogPostRepository.findMarkdownById(patched.getId()).orElseThrow());
+        assertEquals("Post 4", patched.getTitle());
+    }
+
+    @Test
+    void updatePost_rejectsStaleExpectedVersion() {
+        BlogPost edit = new BlogPost();
+        edit.setTitle("Edited");
+        edit.setMarkdown("Body 3");
+        long version = blogPostService.updatePost("post-3", edit).getVersion();
+
+        assertThrows(PostVersionConflictException.class, () -> blogPostService.updatePost("post-3", edit, version - 1));
+        assertEquals("Edited", blogPostService.updatePost("post-3", edit, version).getTitle());
+    }
+
+    @Test
+    void getPostSummaries_rejectsGarbageCursor() {
+        assertThrows(IllegalArgumentException.class, () -> blogPostService.getPostSummaries("not-a-cursor", 3));
+    }
+}
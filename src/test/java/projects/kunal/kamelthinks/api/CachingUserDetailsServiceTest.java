@@ -0,0 +1,68 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import projects.kunal.kamelthinks.api.repository.UserRepository;
+import projects.kunal.kamelthinks.api.security.CachingUserDetailsService;
+import projects.kunal.kamelthinks.api.security.UserCredentialsChangedEvent;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+    private CachingUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        service = new CachingUserDetailsService(userRepository, Duration.ofMinutes(5), 100);
+
+        projects.kunal.kamelthinks.api.model.User user = new projects.kunal.kamelthinks.api.model.User();
+        user.setUsername("testuser");
+        user.setPassword("encodedPassword");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void loadUserByUsername_hitsDatabaseOnce() {
+        UserDetails first = service.loadUserByUsername("testuser");
+        UserDetails second = service.loadUserByUsername("testuser");
+
+        assertEquals("encodedPassword", second.getPassword());
+        assertNotSame(first, second);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    void loadUserByUsername_survivesCredentialErasure() {
+        ((User) service.loadUserByUsername("testuser")).eraseCredentials();
+
+        assertEquals("encodedPassword", service.loadUserByUsername("testuser").getPassword());
+    }
+
+    @Test
+    void credentialsChanged_forcesReload() {
+        service.loadUserByUsername("testuser");
+        service.onCredentialsChanged(new UserCredentialsChangedEvent("testuser"));
+        service.loadUserByUsername("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void loadUserByUsername_unknownUserIsNotCached() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost"));
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
+}
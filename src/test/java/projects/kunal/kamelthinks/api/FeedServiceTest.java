@@ -0,0 +1,237 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.w3c.dom.Document;
+import projects.kunal.kamelthinks.api.dto.PostSummary;
+import projects.kunal.kamelthinks.api.feed.FeedWriter;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.service.FeedService;
+import projects.kunal.kamelthinks.api.service.PostChangedEvent;
+import projects.kunal.kamelthinks.api.service.RenderedDocument;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FeedServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final BlogPostRepository blogPostRepository = mock(BlogPostRepository.class);
+    private final FeedService feedService = new FeedService(blogPostRepository, "https://example.com/", "/posts/",
+            "Example", 3, 40, 2, false);
+    private final List<BlogPost> table = new ArrayList<>();
+
+    private static BlogPost post(long id) {
+        BlogPost post = new BlogPost();
+        post.setId(id);
+        post.setSlug("post-" + id);
+        post.setTitle("Post <" + id + ">");
+        post.setMarkdown("# Heading\n\nThe **body** of post " + id + " goes on for a while after this point.");
+        post.setCreatedAt(BASE.plusMinutes(id));
+        post.setUpdatedAt(BASE.plusMinutes(id));
+        return post;
+    }
+
+    private static PostSummary summary(BlogPost post) {
+        return new PostSummary(post.getId(), post.getTitle(), post.getSlug(), post.getCreatedAt(), post.getUpdatedAt());
+    }
+
+    private static Document parse(RenderedDocument document) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(document.getBody()));
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 5; id++) {
+            table.add(post(id));
+        }
+        // The mock reads from the current table, like the queries it stands in for
+        when(blogPostRepository.findSummariesAfterId(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return table.stream().filter(post -> post.getId() > after).map(FeedServiceTest::summary).toList();
+        });
+        when(blogPostRepository.findLatestSummaries(any(Limit.class))).thenAnswer(invocation -> {
+            int limit = ((Limit) invocation.getArgument(0)).max();
+            return table.stream().sorted(Comparator.comparing(BlogPost::getCreatedAt).reversed())
+                    .limit(limit).map(FeedServiceTest::summary).toList();
+        });
+        when(blogPostRepository.count()).thenAnswer(invocation -> (long) table.size());
+        when(blogPostRepository.findSummariesUpdatedSince(any(LocalDateTime.class))).thenAnswer(invocation -> {
+            LocalDateTime since = invocation.getArgument(0);
+            return table.stream().filter(post -> !post.getUpdatedAt().isBefore(since))
+                    .sorted(Comparator.comparing(BlogPost::getUpdatedAt)).map(FeedServiceTest::summary).toList();
+        });
+        when(blogPostRepository.findAllIds()).thenAnswer(invocation -> table.stream().map(BlogPost::getId).sorted().toList());
+        when(blogPostRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return table.stream().filter(post -> ids.contains(post.getId())).map(FeedServiceTest::summary).toList();
+        });
+        when(blogPostRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Long> ids = new ArrayList<>();
+            ((Iterable<Long>) invocation.getArgument(0)).forEach(ids::add);
+            return table.stream().filter(post -> ids.contains(post.getId())).toList();
+        });
+    }
+
+    @Test
+    void feeds_holdTheNewestPostsAndAreServedWithoutQueries() throws Exception {
+        RenderedDocument rss = feedService.getRss();
+        clearInvocations(blogPostRepository);
+
+        assertSame(rss, feedService.getRss());
+        feedService.getAtom();
+        feedService.getSitemap();
+        verifyNoInteractions(blogPostRepository);
+
+        Document document = parse(rss);
+        assertEquals(3, document.getElementsByTagName("item").getLength());
+        assertEquals("Post <5>", document.getElementsByTagName("item").item(0).getFirstChild().getTextContent());
+        assertEquals("https://example.com/posts/post-5", document.getElementsByTagName("link").item(1).getTextContent());
+        assertEquals(3, parse(feedService.getAtom()).getElementsByTagNameNS("http://www.w3.org/2005/Atom", "entry").getLength());
+    }
+
+    @Test
+    void changes_reRenderOnlyTheDocumentsTheyTouch() {
+        RenderedDocument rss = feedService.getRss();
+        RenderedDocument shard1 = feedService.getSitemapShard(1).orElseThrow();
+        RenderedDocument shard3 = feedService.getSitemapShard(3).orElseThrow();
+
+        // An edit to an old post: not in the feeds, but its sitemap shard has a new lastmod
+        BlogPost edited = post(1);
+        edited.setUpdatedAt(BASE.plusDays(1));
+        feedService.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.UPDATED, edited));
+
+        assertSame(rss, feedService.getRss());
+        assertNotEquals(shard1.getEtag(), feedService.getSitemapShard(1).orElseThrow().getEtag());
+        assertSame(shard3, feedService.getSitemapShard(3).orElseThrow());
+
+        BlogPost created = post(6);
+        table.add(created);
+        feedService.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, created));
+
+        assertNotEquals(rss.getEtag(), feedService.getRss().getEtag());
+        assertEquals(2, new String(feedService.getSitemapShard(3).orElseThrow().getBody()).split("<url>").length - 1);
+    }
+
+    @Test
+    void titleOnlyPatch_keepsTheExcerptWithoutReadingTheBody() throws Exception {
+        feedService.getRss();
+        BlogPost retitled = post(5);
+        retitled.setTitle("Retitled");
+        retitled.setMarkdown(null);
+        retitled.setUpdatedAt(BASE.plusDays(1));
+
+        feedService.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.UPDATED, retitled,
+                () -> fail("the body should not be read")));
+
+        Document rss = parse(feedService.getRss());
+        assertEquals("Retitled", rss.getElementsByTagName("item").item(0).getFirstChild().getTextContent());
+        assertTrue(new String(feedService.getRss().getBody()).contains("The body of post 5"));
+    }
+
+    @Test
+    void sitemap_isSplitIntoAnIndexAndShards() throws Exception {
+        Document index = parse(feedService.getSitemap());
+
+        assertEquals("sitemapindex", index.getDocumentElement().getLocalName());
+        assertEquals(3, index.getElementsByTagNameNS("http://www.sitemaps.org/schemas/sitemap/0.9", "sitemap").getLength());
+        assertEquals("https://example.com/sitemap-1.xml",
+                index.getElementsByTagNameNS("http://www.sitemaps.org/schemas/sitemap/0.9", "loc").item(0).getTextContent());
+        Document shard = parse(feedService.getSitemapShard(1).orElseThrow());
+        assertEquals("urlset", shard.getDocumentElement().getLocalName());
+        assertEquals(2, shard.getElementsByTagNameNS("http://www.sitemaps.org/schemas/sitemap/0.9", "url").getLength());
+        assertTrue(feedService.getSitemapShard(4).isEmpty());
+    }
+
+    @Test
+    void delete_refillsTheFeedsAndShrinksTheSitemap() throws Exception {
+        feedService.getRss();
+        BlogPost deleted = table.remove(4);
+        feedService.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.DELETED, deleted));
+        BlogPost alsoDeleted = table.remove(3);
+        feedService.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.DELETED, alsoDeleted));
+
+        Document rss = parse(feedService.getRss());
+        assertEquals(3, rss.getElementsByTagName("item").getLength());
+        assertEquals("Post <3>", rss.getElementsByTagName("item").item(0).getFirstChild().getTextContent());
+        // Shard 2 (posts 3 and 4) lost post 4; shard 3 (post 5) is gone
+        assertTrue(feedService.getSitemapShard(3).isEmpty());
+        assertEquals(2, parse(feedService.getSitemap())
+                .getElementsByTagNameNS("http://www.sitemaps.org/schemas/sitemap/0.9", "sitemap").getLength());
+    }
+
+    @Test
+    void reconcile_picksUpWritesMadeElsewhereAndKeepsUntouchedDocuments() throws Exception {
+        RenderedDocument rss = feedService.getRss();
+        RenderedDocument shard1 = feedService.getSitemapShard(1).orElseThrow();
+        RenderedDocument shard2 = feedService.getSitemapShard(2).orElseThrow();
+
+        // Nothing changed: a count and a short range scan, no id scan and nothing re-rendered
+        clearInvocations(blogPostRepository);
+        feedService.reconcile();
+        verify(blogPostRepository).count();
+        verify(blogPostRepository).findSummariesUpdatedSince(BASE.plusMinutes(4));
+        verifyNoMoreInteractions(blogPostRepository);
+        assertSame(rss, feedService.getRss());
+
+        // Another instance edits post 4, deletes post 1 and creates post 6, with no events here
+        table.get(3).setUpdatedAt(BASE.plusDays(1));
+        table.remove(0);
+        table.add(post(6));
+        feedService.reconcile();
+
+        Document document = parse(feedService.getRss());
+        assertNotEquals(rss.getEtag(), feedService.getRss().getEtag());
+        assertEquals("Post <6>", document.getElementsByTagName("item").item(0).getFirstChild().getTextContent());
+        assertNotEquals(shard1.getEtag(), feedService.getSitemapShard(1).orElseThrow().getEtag());
+        assertNotEquals(shard2.getEtag(), feedService.getSitemapShard(2).orElseThrow().getEtag());
+        assertEquals(2, new String(feedService.getSitemapShard(3).orElseThrow().getBody()).split("<url>").length - 1);
+
+        verify(blogPostRepository).findAllIds();
+
+        // A fresh instance built from the same table serves the same bytes
+        FeedService other = new FeedService(blogPostRepository, "https://example.com/", "/posts/", "Example", 3, 40, 2, false);
+        assertEquals(other.getRss().getEtag(), feedService.getRss().getEtag());
+        assertEquals(other.getSitemapShard(2).orElseThrow().getEtag(), feedService.getSitemapShard(2).orElseThrow().getEtag());
+    }
+
+    @Test
+    void reconcile_onlyScansIdsWhenTheCountDisagrees() {
+        feedService.getRss();
+
+        // An edit elsewhere: found by the range scan alone
+        table.get(1).setUpdatedAt(BASE.plusDays(1));
+        clearInvocations(blogPostRepository);
+        feedService.reconcile();
+        verify(blogPostRepository, never()).findAllIds();
+        assertTrue(new String(feedService.getSitemapShard(1).orElseThrow().getBody()).contains("2024-01-02"));
+
+        // A post committed with an updatedAt far behind the watermark: the count gives it away
+        BlogPost late = post(7);
+        late.setUpdatedAt(BASE);
+        table.add(late);
+        feedService.reconcile();
+        verify(blogPostRepository).findAllIds();
+        assertTrue(new String(feedService.getSitemapShard(4).orElseThrow().getBody()).contains("post-7"));
+    }
+
+    @Test
+    void excerpt_stripsMarkupAndCutsAtAWord() {
+        assertEquals("Heading The body of…", FeedWriter.excerpt("# Heading\n\nThe **body** of post", 20));
+        assertEquals("short", FeedWriter.excerpt("short", 20));
+    }
+}
@@ -0,0 +1,104 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import projects.kunal.kamelthinks.api.search.Highlighter;
+import projects.kunal.kamelthinks.api.search.InvertedIndex;
+import projects.kunal.kamelthinks.api.search.ScoredDoc;
+import projects.kunal.kamelthinks.api.search.Tokenizer;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex(2.5f);
+
+    private void add(long id, long version, String title, String body) {
+        index.add(id, version, Tokenizer.terms(title), Tokenizer.terms(body));
+    }
+
+    private List<Long> search(String query) {
+        return index.search(Tokenizer.terms(query), 10).stream().map(ScoredDoc::postId).toList();
+    }
+
+    @Test
+    void tokenizer_lowercasesAndDropsStopWordsAndPunctuation() {
+        assertEquals(List.of("camels", "desert", "2024"), Tokenizer.terms("## The *Camels* of the Desert, 2024!"));
+    }
+
+    @Test
+    void search_ranksTitleMatchesAndRareTermsHigher() {
+        add(1, 1, "Desert travel", "Notes on crossing dunes.");
+        add(2, 1, "Packing list", "Bring water for the desert and a camel.");
+        add(3, 1, "Camel care", "Feeding and grooming.");
+
+        assertEquals(List.of(1L, 2L), search("desert"));
+        assertEquals(List.of(3L, 2L), search("camel"));
+        assertEquals(3L, search("camel grooming").get(0));
+        assertTrue(search("penguin").isEmpty());
+    }
+
+    @Test
+    void reindexAndRemove_areReflectedImmediately() {
+        add(1, 1, "Old title", "sandstorm");
+        add(1, 2, "New title", "oasis");
+        assertTrue(search("sandstorm").isEmpty());
+        assertEquals(List.of(1L), search("oasis"));
+
+        assertTrue(index.remove(1));
+        assertTrue(search("oasis").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void add_ignoresOlderVersions() {
+        add(1, 5, "Current", "fresh");
+        add(1, 3, "Stale", "outdated");
+
+        assertEquals(List.of(1L), search("fresh"));
+        assertTrue(search("outdated").isEmpty());
+    }
+
+    @Test
+    void compaction_keepsSurvivorsSearchable() {
+        for (long id = 1; id <= 300; id++) {
+            add(id, 1, "Post " + id, id % 2 == 0 ? "even camel" : "odd camel");
+        }
+        for (long id = 1; id <= 300; id += 2) {
+            index.remove(id);
+        }
+
+        assertEquals(150, index.size());
+        assertEquals(10, search("even").size());
+        assertTrue(search("odd").isEmpty());
+        assertTrue(search("camel").stream().allMatch(id -> id % 2 == 0));
+    }
+
+    @Test
+    void repeatedReindex_compactsDeadDocs() {
+        add(2, 1, "Neighbour", "camel");
+        for (long version = 1; version <= 10_000; version++) {
+            add(1, version, "Edited post", "revision" + version);
+        }
+
+        assertEquals(2, index.size());
+        assertTrue(index.docSlots() <= 2 + 65, "doc slots: " + index.docSlots());
+        assertTrue(index.termCount() <= 4 + 65, "terms: " + index.termCount());
+        assertEquals(List.of(1L), search("revision10000"));
+        assertTrue(search("revision9000").isEmpty());
+        assertEquals(List.of(2L), search("camel"));
+    }
+
+    @Test
+    void highlighter_marksTermsAndEscapesHtml() {
+        assertEquals("<mark>Camel</mark> &amp; rider", Highlighter.highlight("Camel & rider", Set.of("camel")));
+
+        String text = "Intro paragraph. ".repeat(30) + "The **oasis** was <b>near</b>.";
+        String snippet = Highlighter.snippet(text, Set.of("oasis"), 80);
+        assertTrue(snippet.startsWith("…"));
+        assertTrue(snippet.contains("<mark>oasis</mark>"));
+        assertTrue(snippet.contains("&lt;b&gt;"));
+    }
+}
@@ -0,0 +1,84 @@
+package projects.kunal.kamelthinks.api;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import projects.kunal.kamelthinks.api.security.JwtUtil;
+import projects.kunal.kamelthinks.api.security.VerifiedToken;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(60_000L);
+        registry = new SimpleMeterRegistry();
+        jwtUtil.bindTo(registry);
+    }
+
+    private static JwtUtil newJwtUtil(long expiration) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", "a-test-secret-that-is-long-enough-for-hs256!!");
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "cacheMaxSize", 100L);
+        util.init();
+        return util;
+    }
+
+    @Test
+    void verifyToken_returnsClaimsAndCachesResult() {
+        String token = jwtUtil.generateToken("testuser");
+
+        VerifiedToken first = jwtUtil.verifyToken(token);
+        VerifiedToken second = jwtUtil.verifyToken(token);
+
+        assertEquals("testuser", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void verifyToken_issuedAtHasMillisecondPrecision() {
+        long before = System.currentTimeMillis();
+        String token = jwtUtil.generateToken("testuser");
+        long after = System.currentTimeMillis();
+
+        long issuedAt = jwtUtil.verifyToken(token).getIssuedAt().getTime();
+        assertTrue(issuedAt >= before && issuedAt <= after, "issued at " + issuedAt);
+        // The standard claim is still there, in whole seconds, for other consumers
+        assertEquals(issuedAt / 1000, jwtUtil.getClaimsFromToken(token).getIssuedAt().getTime() / 1000);
+    }
+
+    @Test
+    void validateToken_usesSingleVerification() {
+        String token = jwtUtil.generateToken("testuser");
+
+        assertTrue(jwtUtil.validateToken(token, "testuser"));
+        assertFalse(jwtUtil.validateToken(token, "someoneelse"));
+    }
+
+    @Test
+    void verifyToken_rejectsTamperedToken() {
+        String token = jwtUtil.generateToken("testuser");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verifyToken(tampered));
+    }
+
+    @Test
+    void verifyToken_rejectsExpiredToken() {
+        JwtUtil shortLived = newJwtUtil(-1_000L);
+        String token = shortLived.generateToken("testuser");
+
+        assertThrows(JwtException.class, () -> shortLived.verifyToken(token));
+    }
+}
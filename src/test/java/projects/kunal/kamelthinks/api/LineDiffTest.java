@@ -0,0 +1,97 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import projects.kunal.kamelthinks.api.revision.Compression;
+import projects.kunal.kamelthinks.api.revision.Delta;
+import projects.kunal.kamelthinks.api.revision.LineDiff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineDiffTest {
+
+    @Test
+    void delta_roundTripsRandomEdits() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<String> oldLines = randomLines(random, random.nextInt(40));
+            List<String> newLines = new ArrayList<>(oldLines);
+            for (int edit = random.nextInt(6); edit > 0; edit--) {
+                int at = newLines.isEmpty() ? 0 : random.nextInt(newLines.size());
+                switch (random.nextInt(3)) {
+                    case 0 -> newLines.add(at, "inserted " + random.nextInt(5) + "\n");
+                    case 1 -> { if (!newLines.isEmpty()) newLines.remove(at); }
+                    default -> { if (!newLines.isEmpty()) newLines.set(at, "changed " + random.nextInt(5) + "\n"); }
+                }
+            }
+            if (random.nextBoolean() && !newLines.isEmpty()) {
+                // Last line without a terminator
+                int last = newLines.size() - 1;
+                newLines.set(last, newLines.get(last).strip());
+            }
+            String newText = String.join("", newLines);
+
+            Delta delta = Delta.between(LineDiff.lines(String.join("", oldLines)), LineDiff.lines(newText), LineDiff.MAX_EDITS);
+            Delta decoded = Delta.decode(delta.encode());
+
+            assertEquals(newText, decoded.apply(oldLines), "round " + round);
+        }
+    }
+
+    @Test
+    void delta_sizeFollowsTheChangeNotTheText() {
+        List<String> oldLines = randomLines(new Random(1), 20_000);
+        List<String> newLines = new ArrayList<>(oldLines);
+        newLines.set(10_000, "a single edited line\n");
+        newLines.add(15_000, "and one added line\n");
+
+        byte[] delta = Compression.deflate(
+                Delta.between(oldLines, newLines, LineDiff.MAX_EDITS).encode());
+
+        assertTrue(delta.length < 100, "delta was " + delta.length + " bytes");
+        assertEquals(String.join("", newLines), Delta.decode(Compression.inflate(delta)).apply(oldLines));
+    }
+
+    @Test
+    void unified_showsChangesWithContext() {
+        List<String> a = LineDiff.lines("one\ntwo\nthree\nfour\nfive\nsix\nseven\neight\nnine\n");
+        List<String> b = LineDiff.lines("one\ntwo\nthree\nfour\nFIVE\nsix\nseven\neight\nnine\nten\n");
+
+        String diff = LineDiff.unified(a, b, "revision 1", "revision 2", 1);
+
+        assertEquals("""
+                --- revision 1
+                +++ revision 2
+                @@ -4,3 +4,3 @@
+                 four
+                -five
+                +FIVE
+                 six
+                @@ -9,1 +9,2 @@
+                 nine
+                +ten
+                """, diff);
+        assertEquals("", LineDiff.unified(a, a, "x", "y", 3));
+    }
+
+    @Test
+    void compression_roundTrips() {
+        byte[] text = "camel ".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        byte[] deflated = Compression.deflate(text);
+
+        assertTrue(deflated.length < text.length / 10);
+        assertArrayEquals(text, Compression.inflate(deflated));
+    }
+
+    private static List<String> randomLines(Random random, int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + random.nextInt(count + 1) + " of some post\n");
+        }
+        return lines;
+    }
+}
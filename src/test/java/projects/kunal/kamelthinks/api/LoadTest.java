@@ -0,0 +1,332 @@
+package projects.kunal.kamelthinks.api;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.model.User;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.repository.UserRepository;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the app on a random port against the embedded H2 database, seeds users and
+ * posts, then drives a weighted mix of logins, authenticated post reads, listings and post writes through
+ * the real controllers. Latencies go into one HdrHistogram per scenario (printed and written to
+ * {@code target/loadtest/*.hgrm}) and the test fails when a p50/p99 or throughput budget is blown.
+ * <p>
+ * Excluded from the normal build; run with {@code mvn -Ploadtest test}. Workers are closed-loop, so the
+ * numbers are service times under the given concurrency rather than an open-model arrival rate.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // The harness comes from a single IP and hammers a handful of accounts
+        "security.rate-limit.login.permits=100000000",
+        "security.rate-limit.register.permits=100000000",
+        "security.rate-limit.post-writes.permits=100000000",
+        "security.login-throttle.failures=100000000"
+})
+class LoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String PASSWORD = "load-test-password";
+
+    enum Scenario {
+        LOGIN(5, 500, 3000),
+        READ(65, 20, 200),
+        LIST(20, 30, 300),
+        WRITE(10, 50, 500);
+
+        final int weight;
+        final long defaultP50Ms;
+        final long defaultP99Ms;
+
+        Scenario(int weight, long defaultP50Ms, long defaultP99Ms) {
+            this.weight = weight;
+            this.defaultP50Ms = defaultP50Ms;
+            this.defaultP99Ms = defaultP99Ms;
+        }
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${loadtest.users:20}")
+    private int userCount;
+
+    @Value("${loadtest.posts:200}")
+    private int postCount;
+
+    @Value("${loadtest.concurrency:8}")
+    private int concurrency;
+
+    @Value("${loadtest.warmup:PT5S}")
+    private Duration warmup;
+
+    @Value("${loadtest.duration:PT20S}")
+    private Duration duration;
+
+    @Value("${loadtest.budget.throughput:100}")
+    private double minThroughput;
+
+    // A request still unanswered after this counts as failed, so one stall cannot hang a worker
+    @Value("${loadtest.request-timeout:PT10S}")
+    private Duration requestTimeout;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10)).build();
+    private final AtomicLong writeSequence = new AtomicLong();
+    private List<String> usernames;
+    private List<String> slugs;
+    private List<String> tokens;
+
+    @Test
+    void mixedWorkload_staysWithinBudgets() throws Exception {
+        seed();
+        tokens = new ArrayList<>();
+        for (String username : usernames) {
+            // Outside the measurement, so the first (cold) logins are not held to the per-request timeout
+            HttpRequest login = HttpRequest.newBuilder(login(username), (name, value) -> true)
+                    .timeout(Duration.ofMinutes(1)).build();
+            HttpResponse<String> response = send(login);
+            Matcher matcher = TOKEN.matcher(response.body());
+            assertTrue(matcher.find(), "Login failed for " + username + ": " + response.statusCode());
+            tokens.add(matcher.group(1));
+        }
+
+        run(warmup);
+        Result result = run(duration);
+
+        List<String> failures = new ArrayList<>();
+        System.out.printf("%nLoad test: %d workers for %s, %d users, %d posts%n", concurrency, duration, userCount, postCount);
+        System.out.printf("%-6s %9s %9s %9s %9s %9s %7s%n", "", "count", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        Path reportDir = Files.createDirectories(Path.of("target", "loadtest"));
+        for (Scenario scenario : Scenario.values()) {
+            Histogram histogram = result.histograms.get(scenario);
+            double p50 = millis(histogram.getValueAtPercentile(50));
+            double p99 = millis(histogram.getValueAtPercentile(99));
+            System.out.printf("%-6s %9d %9.2f %9.2f %9.2f %9.2f %7d%n", scenario.key(), histogram.getTotalCount(),
+                    p50, millis(histogram.getValueAtPercentile(90)), p99, millis(histogram.getMaxValue()),
+                    result.errors.get(scenario).get());
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(scenario.key() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1_000_000.0);
+            }
+
+            long p50Budget = budget(scenario, "p50-ms", scenario.defaultP50Ms);
+            long p99Budget = budget(scenario, "p99-ms", scenario.defaultP99Ms);
+            if (p50 > p50Budget) {
+                failures.add("%s p50 %.2f ms > %d ms".formatted(scenario.key(), p50, p50Budget));
+            }
+            if (p99 > p99Budget) {
+                failures.add("%s p99 %.2f ms > %d ms".formatted(scenario.key(), p99, p99Budget));
+            }
+            if (result.errors.get(scenario).get() > 0) {
+                failures.add("%s had %d failed requests".formatted(scenario.key(), result.errors.get(scenario).get()));
+            }
+        }
+        double throughput = result.total() / (duration.toNanos() / 1e9);
+        System.out.printf("throughput %.1f req/s (budget >= %.1f)%n%n", throughput, minThroughput);
+        if (throughput < minThroughput) {
+            failures.add("throughput %.1f req/s < %.1f".formatted(throughput, minThroughput));
+        }
+
+        assertTrue(failures.isEmpty(), "Load test budgets exceeded: " + failures);
+    }
+
+    private void seed() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        usernames = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            User user = new User();
+            user.setUsername("load-user-" + i);
+            user.setPassword(hash);
+            users.add(user);
+            usernames.add(user.getUsername());
+        }
+        userRepository.saveAll(users);
+
+        slugs = new ArrayList<>();
+        List<BlogPost> posts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < postCount; i++) {
+            BlogPost post = new BlogPost();
+            post.setTitle("Load test post " + i);
+            post.setSlug("load-post-" + i);
+            post.setMarkdown(markdown(i));
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            posts.add(post);
+            slugs.add(post.getSlug());
+        }
+        blogPostRepository.saveAll(posts);
+    }
+
+    private Result run(Duration length) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + length.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<Scenario, Histogram>>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(workers.submit(() -> work(deadline, result)));
+        }
+        workers.shutdown();
+        for (Future<Map<Scenario, Histogram>> future : futures) {
+            try {
+                future.get().forEach((scenario, histogram) -> result.histograms.get(scenario).add(histogram));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Load worker failed", e.getCause());
+            }
+        }
+        return result;
+    }
+
+    // One closed-loop client: pick a scenario by weight, send, record, repeat until the deadline
+    private Map<Scenario, Histogram> work(long deadline, Result result) throws IOException, InterruptedException {
+        Map<Scenario, Histogram> histograms = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            histograms.put(scenario, newHistogram());
+        }
+        int totalWeight = Arrays.stream(Scenario.values()).mapToInt(s -> s.weight).sum();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            Scenario scenario = Scenario.values()[0];
+            for (Scenario candidate : Scenario.values()) {
+                if (pick < candidate.weight) {
+                    scenario = candidate;
+                    break;
+                }
+                pick -= candidate.weight;
+            }
+            HttpRequest request = request(scenario, random);
+            long start = System.nanoTime();
+            boolean failed;
+            try {
+                failed = send(request).statusCode() >= 300;
+            } catch (IOException e) {
+                // Timed out or dropped: counted as an error, its latency recorded as the time waited
+                failed = true;
+            }
+            histograms.get(scenario).recordValue(System.nanoTime() - start);
+            if (failed) {
+                result.errors.get(scenario).incrementAndGet();
+            }
+        }
+        return histograms;
+    }
+
+    private HttpRequest request(Scenario scenario, ThreadLocalRandom random) {
+        String token = tokens.get(random.nextInt(tokens.size()));
+        return switch (scenario) {
+            case LOGIN -> login(usernames.get(random.nextInt(usernames.size())));
+            case READ -> newRequest("/api/posts/" + slugs.get(random.nextInt(slugs.size())))
+                    .header("Authorization", "Bearer " + token)
+                    .GET().build();
+            case LIST -> newRequest("/api/posts/summaries?limit=20")
+                    .header("Authorization", "Bearer " + token)
+                    .GET().build();
+            case WRITE -> {
+                long n = writeSequence.incrementAndGet();
+                String body = "{\"title\":\"Written under load %d\",\"slug\":\"load-write-%d\",\"markdown\":\"%s\"}"
+                        .formatted(n, n, markdown((int) n).replace("\n", "\\n"));
+                yield newRequest("/api/posts")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            }
+        };
+    }
+
+    private HttpRequest login(String username) {
+        String body = "{\"username\":\"%s\",\"password\":\"%s\"}".formatted(username, PASSWORD);
+        return newRequest("/api/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder newRequest(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(requestTimeout);
+    }
+
+    private long budget(Scenario scenario, String name, long defaultValue) {
+        return environment.getProperty("loadtest.budget." + scenario.key() + "." + name, Long.class, defaultValue);
+    }
+
+    private static String markdown(int n) {
+        StringBuilder sb = new StringBuilder("# Post ").append(n).append("\n\n");
+        for (int i = 0; i < 20; i++) {
+            sb.append("Paragraph ").append(i).append(" with **bold**, `code` and a [link](https://example.com/")
+                    .append(n).append(").\n\n");
+        }
+        return sb.toString();
+    }
+
+    // Auto-resizing: a pathological outlier is recorded as what it was instead of overflowing the range
+    private static Histogram newHistogram() {
+        return new Histogram(3);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Result {
+        final Map<Scenario, Histogram> histograms = new EnumMap<>(Scenario.class);
+        final Map<Scenario, AtomicLong> errors = new EnumMap<>(Scenario.class);
+
+        Result() {
+            for (Scenario scenario : Scenario.values()) {
+                histograms.put(scenario, newHistogram());
+                errors.put(scenario, new AtomicLong());
+            }
+        }
+
+        long total() {
+            return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import projects.kunal.kamelthinks.api.dto.RenderedPost;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.service.MarkdownRenderer;
+import projects.kunal.kamelthinks.api.service.PostChangedEvent;
+import projects.kunal.kamelthinks.api.service.RenderedPostCache;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarkdownRendererTest {
+
+    private final MarkdownRenderer renderer = new MarkdownRenderer(false);
+
+    private static BlogPost post(String markdown, LocalDateTime updatedAt) {
+        BlogPost post = new BlogPost();
+        post.setSlug("first-post");
+        post.setTitle("First Post");
+        post.setMarkdown(markdown);
+        post.setUpdatedAt(updatedAt);
+        return post;
+    }
+
+    @Test
+    void render_buildsHtmlTocAndExcerpt() {
+        RenderedPost rendered = renderer.render(post(
+                "# Intro\n\nSome *text* here.\n\n## Details\n\nMore.\n\n## Details\n", LocalDateTime.now()));
+
+        assertEquals(3, rendered.getToc().size());
+        assertEquals("intro", rendered.getToc().get(0).getAnchor());
+        assertEquals(2, rendered.getToc().get(1).getLevel());
+        // Duplicate headings get distinct anchors, and the HTML uses exactly the TOC anchors
+        assertNotEquals(rendered.getToc().get(1).getAnchor(), rendered.getToc().get(2).getAnchor());
+        rendered.getToc().forEach(entry -> assertTrue(rendered.getHtml().contains("id=\"" + entry.getAnchor() + "\"")));
+        assertTrue(rendered.getHtml().contains("<em>text</em>"));
+        assertTrue(rendered.getExcerpt().startsWith("Intro Some text here."));
+    }
+
+    @Test
+    void render_escapesRawHtmlAndUnsafeLinks() {
+        RenderedPost rendered = renderer.render(post(
+                "<script>alert(1)</script>\n\n[click](javascript:alert(1))", LocalDateTime.now()));
+
+        assertFalse(rendered.getHtml().contains("<script>"));
+        assertFalse(rendered.getHtml().contains("javascript:"));
+    }
+
+    @Test
+    void cache_rendersOncePerVersion() {
+        RenderedPostCache cache = new RenderedPostCache(renderer, 1_000_000);
+        LocalDateTime v1 = LocalDateTime.now().minusMinutes(1);
+        BlogPost first = post("# One", v1);
+
+        RenderedPost rendered = cache.get(first);
+        assertSame(rendered, cache.get(post("# One", v1)));
+
+        BlogPost second = post("# Two", LocalDateTime.now());
+        cache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.UPDATED, second));
+        assertEquals("two", cache.get(second).getToc().get(0).getAnchor());
+    }
+}
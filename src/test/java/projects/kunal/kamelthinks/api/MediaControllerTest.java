@@ -0,0 +1,148 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import projects.kunal.kamelthinks.api.controller.MediaController;
+import projects.kunal.kamelthinks.api.model.MediaObject;
+import projects.kunal.kamelthinks.api.repository.UserRepository;
+import projects.kunal.kamelthinks.api.security.JwtUtil;
+import projects.kunal.kamelthinks.api.security.TokenRevocationService;
+import projects.kunal.kamelthinks.api.service.MediaStore;
+import projects.kunal.kamelthinks.api.service.StoredMedia;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MediaController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class MediaControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MediaStore mediaStore;
+
+    // JwtFilter's dependencies, as in the other controller tests
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @TempDir
+    Path dir;
+
+    private final MediaObject media = new MediaObject(HASH, "image/png", CONTENT.length(), LocalDateTime.now());
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = Files.writeString(dir.resolve(HASH), CONTENT, StandardCharsets.US_ASCII);
+        when(mediaStore.find(anyString())).thenReturn(Optional.empty());
+        when(mediaStore.find(HASH)).thenReturn(Optional.of(media));
+        when(mediaStore.path(HASH)).thenReturn(file);
+    }
+
+    @Test
+    void download_servesTheWholeFileAsImmutable() throws Exception {
+        mockMvc.perform(get("/api/media/" + HASH))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().string(CONTENT))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "20"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    void download_servesByteRanges() throws Exception {
+        mockMvc.perform(get("/api/media/" + HASH).header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(content().string("56789"));
+        mockMvc.perform(get("/api/media/" + HASH).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("hij"));
+        mockMvc.perform(get("/api/media/" + HASH).header(HttpHeaders.RANGE, "bytes=15-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 15-19/20"));
+        mockMvc.perform(get("/api/media/" + HASH).header(HttpHeaders.RANGE, "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void download_ignoresRangeWhenIfRangeNoLongerMatches() throws Exception {
+        mockMvc.perform(get("/api/media/" + HASH)
+                        .header(HttpHeaders.RANGE, "bytes=5-9")
+                        .header(HttpHeaders.IF_RANGE, "\"something-else\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void download_revalidatesWithoutABody() throws Exception {
+        mockMvc.perform(get("/api/media/" + HASH).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void download_unknownHash() throws Exception {
+        mockMvc.perform(get("/api/media/" + "cd".repeat(32)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void upload_returnsTheMediaUrl() throws Exception {
+        when(mediaStore.isAllowed("image/png")).thenReturn(true);
+        when(mediaStore.store(any(InputStream.class), eq("image/png"))).thenReturn(new StoredMedia(media, true));
+
+        mockMvc.perform(post("/api/media").contentType("image/png").content(CONTENT))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/media/" + HASH))
+                .andExpect(jsonPath("$.hash", is(HASH)))
+                .andExpect(jsonPath("$.size", is(20)));
+    }
+
+    @Test
+    void upload_rejectsUnsupportedTypes() throws Exception {
+        mockMvc.perform(post("/api/media").contentType("image/svg+xml").content("<svg/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,157 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import projects.kunal.kamelthinks.api.repository.MediaRepository;
+import projects.kunal.kamelthinks.api.service.InlineImageExtractor;
+import projects.kunal.kamelthinks.api.service.MediaStore;
+import projects.kunal.kamelthinks.api.service.MediaTooLargeException;
+import projects.kunal.kamelthinks.api.service.StoredMedia;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({MediaStore.class, InlineImageExtractor.class})
+// MediaStore commits its rows in transactions of its own, so tests run outside one and clean up after themselves
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MediaStoreTest {
+
+    // Shared by the whole class: files outlive each test's deleted rows
+    @TempDir
+    static Path root;
+
+    @DynamicPropertySource
+    static void mediaProperties(DynamicPropertyRegistry registry) {
+        registry.add("media.root", root::toString);
+        registry.add("media.max-bytes", () -> "1024");
+    }
+
+    @Autowired
+    private MediaStore mediaStore;
+
+    @Autowired
+    private InlineImageExtractor inlineImageExtractor;
+
+    @Autowired
+    private MediaRepository mediaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final byte[] PNG = "\u0089PNG fake image bytes".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static long filesUnder(Path dir) throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @AfterEach
+    void deleteRows() {
+        mediaRepository.deleteAll();
+    }
+
+    @Test
+    void store_addressesContentBySha256AndDeduplicates() throws Exception {
+        StoredMedia first = mediaStore.store(new ByteArrayInputStream(PNG), "image/png");
+        StoredMedia second = mediaStore.store(new ByteArrayInputStream(PNG), "image/png; charset=binary");
+
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(PNG));
+        assertEquals(sha256, first.media().getHash());
+        assertTrue(first.created());
+        assertFalse(second.created());
+        assertEquals(first.media().getHash(), second.media().getHash());
+        assertEquals(1, mediaRepository.count());
+        assertArrayEquals(PNG, Files.readAllBytes(mediaStore.path(sha256)));
+        assertEquals(0, filesUnder(root.resolve("tmp")));
+    }
+
+    @Test
+    void store_rejectsUnsafeTypesAndOversizedUploads() throws Exception {
+        long files = filesUnder(root);
+        assertThrows(IllegalArgumentException.class,
+                () -> mediaStore.store(new ByteArrayInputStream(new byte[10]), "image/svg+xml"));
+        assertThrows(MediaTooLargeException.class,
+                () -> mediaStore.store(new ByteArrayInputStream(new byte[2048]), "image/gif"));
+        assertEquals(0, mediaRepository.count());
+        assertEquals(files, filesUnder(root));
+    }
+
+    @Test
+    void store_concurrentlyFromInsidePostTransactions_neitherFails() throws Exception {
+        TransactionTemplate postTransaction = new TransactionTemplate(transactionManager);
+        int writers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            for (int round = 0; round < 5; round++) {
+                byte[] image = ("\u0089PNG shared image " + round).getBytes(StandardCharsets.ISO_8859_1);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<StoredMedia>> results = new ArrayList<>();
+                for (int i = 0; i < writers; i++) {
+                    // Like InlineImageExtractor inside createPost: the caller's transaction must still commit
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return postTransaction.execute(status -> {
+                            try {
+                                return mediaStore.store(image, "image/png");
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+                    }));
+                }
+                start.countDown();
+                Set<String> hashes = new HashSet<>();
+                for (Future<StoredMedia> result : results) {
+                    hashes.add(result.get(10, TimeUnit.SECONDS).media().getHash());
+                }
+                assertEquals(1, hashes.size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(5, mediaRepository.count());
+    }
+
+    @Test
+    void find_ignoresAnythingThatIsNotAHash() {
+        assertTrue(mediaStore.find("../../etc/passwd").isEmpty());
+        assertTrue(mediaStore.find("0".repeat(64)).isEmpty());
+    }
+
+    @Test
+    void extract_movesInlineImagesIntoTheStore() throws Exception {
+        String base64 = Base64.getMimeEncoder().encodeToString(PNG);
+        String markdown = "Intro\n\n![diagram](data:image/png;base64," + base64 + ")\n\n"
+                + "<img src=\"data:image/png;base64," + base64 + "\">\n\n"
+                + "![vector](data:image/svg+xml;base64,PHN2Zz4=)";
+
+        String extracted = inlineImageExtractor.extract(markdown);
+
+        String hash = mediaRepository.findAll().get(0).getHash();
+        assertEquals("Intro\n\n![diagram](/api/media/" + hash + ")\n\n"
+                + "<img src=\"/api/media/" + hash + "\">\n\n"
+                + "![vector](data:image/svg+xml;base64,PHN2Zz4=)", extracted);
+        assertEquals(1, mediaRepository.count());
+        assertEquals("No images here", inlineImageExtractor.extract("No images here"));
+    }
+}
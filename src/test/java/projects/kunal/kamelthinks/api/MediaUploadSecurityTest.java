@@ -0,0 +1,57 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MediaUploadSecurityTest {
+
+    @TempDir
+    static Path root;
+
+    @DynamicPropertySource
+    static void mediaProperties(DynamicPropertyRegistry registry) {
+        registry.add("media.root", root::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static final byte[] PNG = "\u0089PNG upload security".getBytes(StandardCharsets.ISO_8859_1);
+
+    @Test
+    void upload_requiresAuthentication() throws Exception {
+        mockMvc.perform(post("/api/media").contentType("image/png").content(PNG))
+                .andExpect(status().isForbidden());
+        try (Stream<Path> files = Files.walk(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+
+        mockMvc.perform(post("/api/media").contentType("image/png").content(PNG).with(user("camel")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void download_staysPublic() throws Exception {
+        mockMvc.perform(get("/api/media/" + "0".repeat(64)))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,51 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "management.endpoints.web.exposure.include=health,metrics,prometheus",
+        "management.metrics.distribution.percentiles-histogram.security=true"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusEndpoint_exposesHotPathTimers() throws Exception {
+        mockMvc.perform(get("/api/posts").header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("security_jwt_filter_seconds_bucket{")))
+                .andExpect(content().string(containsString("security_jwt_rejected_total")))
+                .andExpect(content().string(containsString("posts_service_seconds_count{")))
+                .andExpect(content().string(containsString("security_password_seconds_count{")));
+    }
+
+    @Test
+    void actuatorEndpoints_areRefusedOutsideTheAllowedNetworks() throws Exception {
+        RequestPostProcessor internet = request -> {
+            request.setRemoteAddr("203.0.113.7");
+            return request;
+        };
+
+        mockMvc.perform(get("/actuator/prometheus").with(internet)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").with(internet)).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/health").with(internet)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,97 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import projects.kunal.kamelthinks.api.datasource.RoutingContext;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.repository.PostTagRepository;
+import projects.kunal.kamelthinks.api.service.PostCache;
+import projects.kunal.kamelthinks.api.service.PostChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PostCacheTest {
+
+    private final BlogPostRepository blogPostRepository = mock(BlogPostRepository.class);
+    private final PostCache postCache = new PostCache(blogPostRepository, mock(PostTagRepository.class), 100, Duration.ofMinutes(10), Duration.ofMinutes(1),
+            Duration.ofSeconds(5));
+
+    private static BlogPost post(String slug) {
+        BlogPost post = new BlogPost();
+        post.setId(1L);
+        post.setSlug(slug);
+        return post;
+    }
+
+    @Test
+    void get_coalescesConcurrentMissesIntoOneQuery() throws Exception {
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blogPostRepository.findBySlug("hot")).thenAnswer(invocation -> {
+            loaderEntered.countDown();
+            release.await();
+            return Optional.of(post("hot"));
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<BlogPost>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> postCache.get("hot")));
+            }
+            assertTrue(loaderEntered.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50); // let the other callers pile up behind the in-flight load
+            release.countDown();
+
+            BlogPost first = results.get(0).get(5, TimeUnit.SECONDS).orElseThrow();
+            for (Future<Optional<BlogPost>> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(blogPostRepository, times(1)).findBySlug("hot");
+    }
+
+    @Test
+    void get_cachesUnknownSlugsUntilCreated() {
+        when(blogPostRepository.findBySlug("new-post")).thenReturn(Optional.empty());
+
+        assertTrue(postCache.get("new-post").isEmpty());
+        assertTrue(postCache.get("new-post").isEmpty());
+        verify(blogPostRepository, times(1)).findBySlug("new-post");
+
+        when(blogPostRepository.findBySlug("new-post")).thenReturn(Optional.of(post("new-post")));
+        postCache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, post("new-post")));
+        assertTrue(postCache.get("new-post").isPresent());
+    }
+
+    @Test
+    void get_refillsAJustChangedPostFromThePrimary() {
+        List<Boolean> pinned = new ArrayList<>();
+        when(blogPostRepository.findBySlug("edited")).thenAnswer(invocation -> {
+            pinned.add(RoutingContext.isPrimaryForced());
+            return Optional.of(post("edited"));
+        });
+
+        postCache.get("edited");
+        postCache.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.UPDATED, post("edited")));
+        postCache.get("edited");
+
+        assertEquals(List.of(false, true), pinned);
+        assertFalse(RoutingContext.isPrimaryForced());
+    }
+
+    @Test
+    void peek_neverLoads() {
+        assertNull(postCache.peek("cold"));
+        verifyNoInteractions(blogPostRepository);
+    }
+}
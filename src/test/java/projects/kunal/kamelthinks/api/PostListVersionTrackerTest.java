@@ -0,0 +1,72 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import projects.kunal.kamelthinks.api.dto.PostListVersion;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.service.PostChangedEvent;
+import projects.kunal.kamelthinks.api.service.PostListVersionTracker;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PostListVersionTrackerTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final BlogPostRepository blogPostRepository = mock(BlogPostRepository.class);
+    private final PostListVersionTracker tracker = new PostListVersionTracker(blogPostRepository);
+
+    private static BlogPost post(long id, LocalDateTime updatedAt) {
+        BlogPost post = new BlogPost();
+        post.setId(id);
+        post.setSlug("post-" + id);
+        post.setUpdatedAt(updatedAt);
+        return post;
+    }
+
+    @Test
+    void get_queriesOnceAndFollowsLocalWrites() {
+        when(blogPostRepository.findListVersion()).thenReturn(new PostListVersion(2, 2L, BASE));
+
+        assertEquals(new PostListVersion(2, 2L, BASE), tracker.get());
+        tracker.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, post(3, BASE.plusMinutes(1))));
+        assertEquals(new PostListVersion(3, 3L, BASE.plusMinutes(1)), tracker.get());
+        tracker.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.UPDATED, post(1, BASE.plusMinutes(2))));
+        assertEquals(new PostListVersion(3, 3L, BASE.plusMinutes(2)), tracker.get());
+        tracker.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.DELETED, post(2, BASE)));
+        assertEquals(new PostListVersion(2, 3L, BASE.plusMinutes(2)), tracker.get());
+
+        verify(blogPostRepository, times(1)).findListVersion();
+    }
+
+    @Test
+    void refresh_picksUpWritesMadeElsewhere() {
+        when(blogPostRepository.findListVersion()).thenReturn(new PostListVersion(2, 2L, BASE));
+        tracker.refresh();
+        verify(blogPostRepository, never()).findListVersion();
+
+        tracker.get();
+        when(blogPostRepository.findListVersion()).thenReturn(new PostListVersion(5, 5L, BASE.plusMinutes(5)));
+        tracker.refresh();
+
+        assertEquals(new PostListVersion(5, 5L, BASE.plusMinutes(5)), tracker.get());
+    }
+
+    @Test
+    void refresh_keepsALocalWriteThatRacedWithTheQuery() {
+        when(blogPostRepository.findListVersion()).thenReturn(new PostListVersion(2, 2L, BASE));
+        tracker.get();
+        when(blogPostRepository.findListVersion()).thenAnswer(invocation -> {
+            // Committed and announced while the (possibly lagging) aggregate was running
+            tracker.onPostChanged(new PostChangedEvent(PostChangedEvent.Type.CREATED, post(3, BASE.plusMinutes(1))));
+            return new PostListVersion(2, 2L, BASE);
+        });
+
+        tracker.refresh();
+
+        assertEquals(new PostListVersion(3, 3L, BASE.plusMinutes(1)), tracker.get());
+    }
+}
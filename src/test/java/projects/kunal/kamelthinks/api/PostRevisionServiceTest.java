@@ -0,0 +1,104 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import projects.kunal.kamelthinks.api.dto.RevisionSummary;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.model.PostRevision;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.repository.PostRevisionRepository;
+import projects.kunal.kamelthinks.api.service.PostRevisionService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Revisions are written in their own transactions, so this test commits and cleans up after itself
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(PostRevisionService.class)
+@TestPropertySource(properties = "revisions.snapshot-interval=3")
+class PostRevisionServiceTest {
+
+    @Autowired
+    private PostRevisionService revisionService;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private PostRevisionRepository revisionRepository;
+
+    private BlogPost post;
+
+    @BeforeEach
+    void setUp() {
+        post = new BlogPost();
+        post.setTitle("Camels");
+        post.setSlug("camels");
+        post.setCreatedAt(LocalDateTime.now());
+        post.setUpdatedAt(LocalDateTime.now());
+        post = blogPostRepository.save(post);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revisionRepository.deleteAll();
+        blogPostRepository.deleteAll();
+    }
+
+    @Test
+    void everyRevisionCanBeRebuilt() {
+        List<String> versions = new ArrayList<>();
+        // Long enough that a one-paragraph delta is always cheaper than a full copy
+        StringBuilder markdown = new StringBuilder("Camels are even-toed ungulates.\n".repeat(100));
+        for (int i = 0; i < 8; i++) {
+            markdown.append("Paragraph ").append(i).append(" about camels.\n");
+            post.setMarkdown(markdown.toString());
+            revisionService.record(post);
+            versions.add(markdown.toString());
+        }
+
+        for (int revision = 1; revision <= versions.size(); revision++) {
+            assertEquals(versions.get(revision - 1), revisionService.get("camels", revision).orElseThrow().getMarkdown());
+        }
+        List<PostRevision.Kind> kinds = revisionService.list("camels").orElseThrow().stream()
+                .map(RevisionSummary::getKind).toList();
+        // Newest first; revisions 1, 4 and 7 are snapshots with interval 3
+        assertEquals(List.of(PostRevision.Kind.DELTA, PostRevision.Kind.SNAPSHOT, PostRevision.Kind.DELTA,
+                PostRevision.Kind.DELTA, PostRevision.Kind.SNAPSHOT, PostRevision.Kind.DELTA,
+                PostRevision.Kind.DELTA, PostRevision.Kind.SNAPSHOT), kinds);
+    }
+
+    @Test
+    void unchangedPostDoesNotAddRevision() {
+        post.setMarkdown("Same\n");
+        revisionService.record(post);
+        revisionService.record(post);
+
+        assertEquals(1, revisionService.list("camels").orElseThrow().size());
+    }
+
+    @Test
+    void diffBetweenRevisions() {
+        post.setMarkdown("Camels store fat.\n");
+        revisionService.record(post);
+        post.setMarkdown("Camels store fat in their humps.\n");
+        revisionService.record(post);
+
+        String diff = revisionService.diff("camels", 1, 2).orElseThrow();
+
+        assertTrue(diff.contains("-Camels store fat.\n+Camels store fat in their humps.\n"), diff);
+        assertTrue(revisionService.diff("camels", 1, 9).isEmpty());
+        assertTrue(revisionService.list("no-such-post").isEmpty());
+    }
+}
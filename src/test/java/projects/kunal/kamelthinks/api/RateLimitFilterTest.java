@@ -0,0 +1,121 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import projects.kunal.kamelthinks.api.security.RateLimitFilter;
+import projects.kunal.kamelthinks.api.security.RateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    @Test
+    void rateLimiter_allowsBurstThenRefillsAtRate() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(3, Duration.ofSeconds(3), 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        long wait = limiter.tryAcquire("a");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        now.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void rateLimiter_resetRestoresFullBurst() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(1, Duration.ofMinutes(1), 100, now::get);
+        limiter.tryAcquire("a");
+        assertTrue(limiter.waitTime("a") > 0);
+
+        limiter.reset("a");
+
+        assertEquals(0, limiter.waitTime("a"));
+    }
+
+    @Test
+    void rateLimiter_refundReturnsOnePermit() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(2, Duration.ofMinutes(1), 100, now::get);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+
+        limiter.refund("a");
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void filter_rejectsOverLimitClientWith429() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(2, Duration.ofMinutes(1), 5, Duration.ofMinutes(10),
+                60, Duration.ofMinutes(1), 1000);
+
+        assertEquals(200, login(filter, "10.0.0.1").getStatus());
+        assertEquals(200, login(filter, "10.0.0.1").getStatus());
+        MockHttpServletResponse rejected = login(filter, "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertEquals(200, login(filter, "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void filter_ignoresReads() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(1, Duration.ofMinutes(1), 1, Duration.ofMinutes(1),
+                1, Duration.ofMinutes(1), 1000);
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/hello");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, response, chain);
+            assertNotNull(chain.getRequest());
+        }
+    }
+
+    @Test
+    void filter_countsMediaUploadsAsPostWrites() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(10, Duration.ofMinutes(1), 10, Duration.ofMinutes(1),
+                1, Duration.ofMinutes(1), 1000);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/posts"), first, new MockFilterChain());
+        MockHttpServletResponse upload = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/media"), upload, new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, upload.getStatus());
+    }
+
+    @Test
+    void filter_countsPasswordChangesAsLogins() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(1, Duration.ofMinutes(1), 10, Duration.ofMinutes(1),
+                10, Duration.ofMinutes(1), 1000);
+
+        MockHttpServletResponse change = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/password"), change, new MockFilterChain());
+
+        assertEquals(200, change.getStatus());
+        assertEquals(429, login(filter, "127.0.0.1").getStatus());
+    }
+
+    private static MockHttpServletResponse login(RateLimitFilter filter, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
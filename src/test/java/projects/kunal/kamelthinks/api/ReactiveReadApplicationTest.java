@@ -0,0 +1,117 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import projects.kunal.kamelthinks.reactive.PostRow;
+import projects.kunal.kamelthinks.reactive.ReactiveReadApplication;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = ReactiveReadApplication.class, properties = {
+        "spring.config.name=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-read;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "reactive.posts.page-size=3"
+})
+@AutoConfigureWebTestClient
+class ReactiveReadApplicationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        // Same shape as the table Hibernate creates for BlogPost
+        databaseClient.sql("drop table if exists blog_post").then()
+                .then(databaseClient.sql("drop table if exists post_tag").then())
+                .then(databaseClient.sql("drop table if exists tag").then())
+                .then(databaseClient.sql("create table blog_post (id bigint generated by default as identity primary key, "
+                        + "title varchar(255), slug varchar(255) unique, markdown text, created_at timestamp(6), "
+                        + "updated_at timestamp(6), version bigint)").then())
+                .then(databaseClient.sql("create table tag (id bigint primary key, name varchar(64) unique, "
+                        + "post_count bigint)").then())
+                .then(databaseClient.sql("create table post_tag (post_id bigint, tag_id bigint, created_at timestamp(6), "
+                        + "primary key (post_id, tag_id))").then())
+                .then(databaseClient.sql("insert into tag values (1, 'travel', 1), (2, 'camels', 1)").then())
+                .then(databaseClient.sql("insert into post_tag values (2, 1, now()), (2, 2, now())").then())
+                .thenMany(Flux.range(1, 7).concatMap(i -> databaseClient
+                        .sql("insert into blog_post (title, slug, markdown, created_at, updated_at, version) "
+                                + "values (:title, :slug, :markdown, :now, :now, 0)")
+                        .bind("title", "Post " + i)
+                        .bind("slug", "post-" + i)
+                        .bind("markdown", "# Body " + i)
+                        .bind("now", LocalDateTime.of(2024, 1, i, 12, 0))
+                        .then()))
+                .blockLast();
+    }
+
+    @Test
+    void getAll_streamsEveryPageInIdOrder() {
+        List<PostRow> posts = webTestClient.get().uri("/api/posts")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PostRow.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(7, posts.size());
+        assertEquals("post-1", posts.get(0).getSlug());
+        assertEquals("post-7", posts.get(6).getSlug());
+        assertEquals("# Body 4", posts.get(3).getMarkdown());
+    }
+
+    @Test
+    void getAll_asNdjson() {
+        List<PostRow> posts = webTestClient.get().uri("/api/posts")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(PostRow.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(7, posts.size());
+    }
+
+    @Test
+    void getOne_bySlug() {
+        webTestClient.get().uri("/api/posts/post-2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Post 2")
+                .jsonPath("$.markdown").isEqualTo("# Body 2")
+                .jsonPath("$.createdAt").isEqualTo("2024-01-02T12:00:00")
+                .jsonPath("$.tags").isEqualTo(List.of("camels", "travel"));
+    }
+
+    @Test
+    void getOne_notFound() {
+        webTestClient.get().uri("/api/posts/missing")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void writesAreRefused() {
+        webTestClient.delete().uri("/api/posts/1")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
@@ -0,0 +1,225 @@
+package projects.kunal.kamelthinks.api;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.reactive.ReactiveReadApplication;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Slow-client comparison between the servlet app and {@link ReactiveReadApplication}: both run in this JVM
+ * against one in-memory H2 database, and {@code loadtest.slow-clients} sockets ask each of them for the full
+ * {@code GET /api/posts} listing, then sit on the response for {@code loadtest.slow-clients.hold} before
+ * reading it. Peak request-handling threads and peak checked-out database connections are sampled while
+ * that happens and printed side by side.
+ * <p>
+ * Excluded from the normal build; run with {@code mvn -Ploadtest test -Dtest=ReactiveReadComparisonLoadTest
+ * -Dloadtest.slow-clients=10000} (each client costs two file descriptors in this process).
+ */
+@Tag("loadtest")
+class ReactiveReadComparisonLoadTest {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:compare;DB_CLOSE_DELAY=-1";
+    private static final String R2DBC_URL = "r2dbc:h2:mem:///compare;DB_CLOSE_DELAY=-1";
+
+    private final int clients = Integer.getInteger("loadtest.slow-clients", 2000);
+    private final int postCount = Integer.getInteger("loadtest.posts", 200);
+    private final int postBytes = Integer.getInteger("loadtest.post-bytes", 2048);
+    private final Duration hold = Duration.parse(System.getProperty("loadtest.slow-clients.hold", "PT10S"));
+    private final Duration timeout = Duration.parse(System.getProperty("loadtest.slow-clients.timeout", "PT5M"));
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void slowClients_reactiveHoldsFewerThreadsAndConnections() throws Exception {
+        ConfigurableApplicationContext servlet = start(new SpringApplicationBuilder(Application.class),
+                "--spring.datasource.url=" + JDBC_URL,
+                // Same socket budget on both sides, so the difference is threads and connections
+                "--server.tomcat.max-connections=" + (clients + 100),
+                "--security.rate-limit.login.permits=100000000");
+        seed(servlet.getBean(BlogPostRepository.class));
+        ConfigurableApplicationContext reactive = start(new SpringApplicationBuilder(ReactiveReadApplication.class)
+                        .properties("spring.config.name=reactive"),
+                "--spring.r2dbc.url=" + R2DBC_URL,
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password=");
+
+        HikariDataSource hikari = unwrap(servlet.getBean(DataSource.class));
+        ConnectionPool pool = reactive.getBean(ConnectionPool.class);
+
+        Peaks servletPeaks = drive(port(servlet), "-exec-",
+                () -> hikari.getHikariPoolMXBean().getActiveConnections());
+        Peaks reactivePeaks = drive(port(reactive), "reactor-http-",
+                () -> pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0));
+
+        System.out.printf("%n%d slow clients, %d posts of %d bytes, holding for %s%n", clients, postCount, postBytes, hold);
+        System.out.printf("%-9s %8s %12s %12s %10s%n", "", "ok", "peak threads", "peak db conn", "seconds");
+        print("servlet", servletPeaks);
+        print("reactive", reactivePeaks);
+        System.out.println();
+
+        assertEquals(clients, servletPeaks.ok, "servlet requests that completed with 200");
+        assertEquals(clients, reactivePeaks.ok, "reactive requests that completed with 200");
+        assertTrue(reactivePeaks.threads < servletPeaks.threads,
+                "reactive used " + reactivePeaks.threads + " threads, servlet " + servletPeaks.threads);
+        assertTrue(reactivePeaks.connections <= servletPeaks.connections,
+                "reactive used " + reactivePeaks.connections + " connections, servlet " + servletPeaks.connections);
+    }
+
+    private ConfigurableApplicationContext start(SpringApplicationBuilder builder, String... args) {
+        String[] all = new String[args.length + 1];
+        all[0] = "--server.port=0";
+        System.arraycopy(args, 0, all, 1, args.length);
+        ConfigurableApplicationContext context = builder.run(all);
+        contexts.add(context);
+        return context;
+    }
+
+    private void seed(BlogPostRepository repository) {
+        String body = "x".repeat(postBytes);
+        LocalDateTime now = LocalDateTime.now();
+        List<BlogPost> posts = new ArrayList<>();
+        for (int i = 0; i < postCount; i++) {
+            BlogPost post = new BlogPost();
+            post.setTitle("Slow client post " + i);
+            post.setSlug("slow-client-post-" + i);
+            post.setMarkdown(body);
+            post.setCreatedAt(now);
+            post.setUpdatedAt(now);
+            posts.add(post);
+        }
+        repository.saveAll(posts);
+    }
+
+    /**
+     * Opens every client, sends the request, waits {@code hold} without reading and then drains all the
+     * responses, sampling the server's worker threads (by name) and database connections throughout.
+     */
+    private Peaks drive(int port, String threadMarker, IntSupplier connections) throws IOException, InterruptedException {
+        Peaks peaks = new Peaks();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            int threads = (int) Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().contains(threadMarker))
+                    .count();
+            peaks.threads = Math.max(peaks.threads, threads);
+            peaks.connections = Math.max(peaks.connections, connections.getAsInt());
+        }, 0, 50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        byte[] request = ("GET /api/posts HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < clients; i++) {
+                SocketChannel channel = SocketChannel.open();
+                // A small window makes the server feel the slow reader instead of parking the body in kernel buffers
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+                channel.connect(new InetSocketAddress("localhost", port));
+                channel.write(ByteBuffer.wrap(request));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Response());
+            }
+            Thread.sleep(hold.toMillis());
+
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (!selector.keys().isEmpty() && System.nanoTime() < deadline) {
+                selector.select(1000);
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    Response response = (Response) key.attachment();
+                    buffer.clear();
+                    int read = ((SocketChannel) key.channel()).read(buffer);
+                    if (read < 0) {
+                        key.channel().close();
+                        if (response.ok()) {
+                            peaks.ok++;
+                        }
+                    } else {
+                        response.append(buffer.array(), read);
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+        } finally {
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        peaks.seconds = (System.nanoTime() - start) / 1e9;
+        return peaks;
+    }
+
+    private void print(String name, Peaks peaks) {
+        System.out.printf("%-9s %8d %12d %12d %10.1f%n", name, peaks.ok, peaks.threads, peaks.connections, peaks.seconds);
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) throws SQLException {
+        return dataSource.unwrap(HikariDataSource.class);
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    private final class Response {
+        private final StringBuilder statusLine = new StringBuilder();
+        private long bytes;
+
+        void append(byte[] data, int length) {
+            for (int i = 0; i < length && statusLine.length() < 12; i++) {
+                statusLine.append((char) data[i]);
+            }
+            bytes += length;
+        }
+
+        // Every post body has to have come through, not just the headers
+        boolean ok() {
+            return statusLine.toString().startsWith("HTTP/1.1 200") && bytes > (long) postCount * postBytes;
+        }
+    }
+
+    private static final class Peaks {
+        volatile int threads;
+        volatile int connections;
+        int ok;
+        double seconds;
+    }
+}
@@ -0,0 +1,102 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import projects.kunal.kamelthinks.api.datasource.ReadWriteRoutingDataSource;
+import projects.kunal.kamelthinks.api.datasource.RoutingContext;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("routing_primary", "primary");
+        replica = database("routing_replica", "replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RoutingContext.clear();
+        new JdbcTemplate(primary).execute("drop table node");
+        new JdbcTemplate(replica).execute("drop table node");
+    }
+
+    @Test
+    void readOnlyTransaction_goesToReplica() {
+        assertEquals("replica", read(routing(replica)));
+    }
+
+    @Test
+    void readWriteTransaction_goesToPrimary() {
+        Harness harness = routing(replica);
+
+        String name = harness.writes.execute(status -> harness.jdbc.queryForObject("select name from node", String.class));
+
+        assertEquals("primary", name);
+    }
+
+    @Test
+    void readAfterWrite_isNotPinnedWithoutRoutingContext() {
+        Harness harness = routing(replica);
+        harness.writes.executeWithoutResult(status -> harness.jdbc.update("update node set name = 'primary-updated'"));
+
+        // Only the writing client is sent to the primary (by ReplicaStickinessFilter), not every read on the instance
+        assertEquals("replica", read(harness));
+        RoutingContext.forcePrimary();
+        assertEquals("primary-updated", read(harness));
+    }
+
+    @Test
+    void forcedPrimary_readsFromPrimary() {
+        Harness harness = routing(replica);
+        RoutingContext.forcePrimary();
+
+        assertEquals("primary", read(harness));
+    }
+
+    @Test
+    void unavailableReplica_fallsBackToPrimary() {
+        DataSource broken = new DriverManagerDataSource("jdbc:h2:mem:routing_missing;IFEXISTS=TRUE", "sa", "");
+        Harness harness = routing(broken);
+
+        assertEquals("primary", read(harness));
+        assertEquals("primary", read(harness));
+    }
+
+    private static String read(Harness harness) {
+        return harness.reads.execute(status -> harness.jdbc.queryForObject("select name from node", String.class));
+    }
+
+    private Harness routing(DataSource replica) {
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, Duration.ofMinutes(1)));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        TransactionTemplate reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+        return new Harness(new JdbcTemplate(routing), reads, new TransactionTemplate(transactionManager));
+    }
+
+    private static DataSource database(String name, String marker) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(32))");
+        jdbc.update("insert into node (name) values (?)", marker);
+        return dataSource;
+    }
+
+    private record Harness(JdbcTemplate jdbc, TransactionTemplate reads, TransactionTemplate writes) {
+    }
+}
@@ -0,0 +1,102 @@
+package projects.kunal.kamelthinks.api;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import projects.kunal.kamelthinks.api.datasource.RoutingContext;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The "replica" is the same H2 database, except that its connections resolve blog_post to an empty copy in a schema
+// of their own: where a read of posts went shows in its result
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stickiness;DB_CLOSE_DELAY=-1",
+        "datasource.replica.connection-timeout=PT0.3S",
+        "feeds.build-on-startup=false",
+        "search.rebuild-on-startup=false"
+})
+@AutoConfigureMockMvc
+class ReplicaStickinessFilterTest {
+
+    // Not in properties above: those are read like a .properties file, which would eat the escaped semicolons
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("datasource.replica.url", () -> "jdbc:h2:mem:stickiness;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS REPLICA\\;SET SCHEMA REPLICA\\;SET SCHEMA_SEARCH_PATH REPLICA, PUBLIC");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replica;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @BeforeEach
+    void setUp() {
+        new JdbcTemplate(replica).execute("create table if not exists replica.blog_post as select * from public.blog_post where 1 = 0");
+
+        blogPostRepository.deleteAll();
+        BlogPost post = new BlogPost();
+        post.setTitle("Only on the primary");
+        post.setSlug("primary-only");
+        post.setMarkdown("Body");
+        post.setCreatedAt(LocalDateTime.now());
+        post.setUpdatedAt(LocalDateTime.now());
+        blogPostRepository.save(post);
+    }
+
+    @Test
+    void wiring_routesThroughALazyProxyWithAShortReplicaTimeout() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        assertEquals(300, replica.getConnectionTimeout());
+        assertTrue(replica.isReadOnly());
+    }
+
+    @Test
+    void otherClientsKeepReadingFromTheReplicaAfterAWrite() throws Exception {
+        // The post above was just committed through this instance; a client that did not write is not pinned
+        mockMvc.perform(get("/api/posts/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+        assertFalse(RoutingContext.isPrimaryForced());
+    }
+
+    @Test
+    void writingClient_readsFromThePrimaryUntilItsCookieExpires() throws Exception {
+        Cookie cookie = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"nobody\",\"password\":\"wrong\"}"))
+                .andExpect(cookie().exists("primary-until"))
+                .andReturn().getResponse().getCookie("primary-until");
+
+        mockMvc.perform(get("/api/posts/summaries").cookie(cookie))
+                .andExpect(jsonPath("$.items[0].slug").value("primary-only"));
+        mockMvc.perform(get("/api/posts/summaries").cookie(new Cookie("primary-until", "1")))
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+}
@@ -0,0 +1,157 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import projects.kunal.kamelthinks.api.dto.PostPage;
+import projects.kunal.kamelthinks.api.dto.PostPatch;
+import projects.kunal.kamelthinks.api.dto.TagCount;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.TagRepository;
+import projects.kunal.kamelthinks.api.service.BlogPostService;
+import projects.kunal.kamelthinks.api.service.InlineImageExtractor;
+import projects.kunal.kamelthinks.api.service.MarkdownRenderer;
+import projects.kunal.kamelthinks.api.service.MediaStore;
+import projects.kunal.kamelthinks.api.service.PostCache;
+import projects.kunal.kamelthinks.api.service.PostListVersionTracker;
+import projects.kunal.kamelthinks.api.service.RenderedPostCache;
+import projects.kunal.kamelthinks.api.service.TagService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BlogPostService.class, PostCache.class, RenderedPostCache.class, MarkdownRenderer.class, TagService.class,
+        InlineImageExtractor.class, MediaStore.class, PostListVersionTracker.class})
+class TagServiceTest {
+
+    @Autowired
+    private BlogPostService blogPostService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private BlogPost create(String slug, String... tags) {
+        BlogPost post = new BlogPost();
+        post.setTitle(slug);
+        post.setSlug(slug);
+        post.setMarkdown("Body of " + slug);
+        post.setTags(List.of(tags));
+        return blogPostService.createPost(post);
+    }
+
+    // Counts are bulk-updated in SQL, so read them past the persistence context
+    private long count(String tag) {
+        entityManager.clear();
+        return tagRepository.findByName(tag).orElseThrow().getPostCount();
+    }
+
+    @Test
+    void normalize_lowerCasesJoinsWordsAndDeduplicates() {
+        assertEquals(List.of("java", "spring-boot"), TagService.normalize(List.of(" Spring Boot", "JAVA", "spring_boot")));
+        assertThrows(IllegalArgumentException.class, () -> TagService.normalize(List.of("  ")));
+        assertThrows(IllegalArgumentException.class, () -> TagService.normalize(List.of("<script>")));
+    }
+
+    @Test
+    void postCounts_followCreatesUpdatesAndDeletes() {
+        BlogPost first = create("first", "java", "Spring");
+        create("second", "java");
+        assertEquals(List.of("java", "spring"), first.getTags());
+        assertEquals(2, count("java"));
+        assertEquals(1, count("spring"));
+
+        BlogPost edit = new BlogPost();
+        edit.setTitle("first");
+        edit.setMarkdown("Edited");
+        edit.setTags(List.of("spring", "jpa"));
+        assertEquals(List.of("jpa", "spring"), blogPostService.updatePost("first", edit).getTags());
+        assertEquals(1, count("java"));
+        assertEquals(1, count("spring"));
+        assertEquals(1, count("jpa"));
+
+        // No tag list: the tags stay as they are
+        edit.setTags(null);
+        assertEquals(List.of("jpa", "spring"), blogPostService.updatePost("first", edit).getTags());
+        assertEquals(1, count("jpa"));
+
+        blogPostService.deletePost("first");
+        assertEquals(0, count("spring"));
+        assertEquals(0, count("jpa"));
+        assertEquals(1, count("java"));
+    }
+
+    @Test
+    void getPost_carriesItsTags() {
+        create("tagged", "b", "a");
+
+        assertEquals(List.of("a", "b"), blogPostService.getPost("tagged").getTags());
+    }
+
+    @Test
+    void patchPost_keepsItsTagsInTheResponse() {
+        create("patched", "b", "a");
+        PostPatch patch = new PostPatch();
+        patch.setTitle("New title");
+
+        BlogPost patched = blogPostService.patchPost("patched", patch, null);
+
+        assertEquals("New title", patched.getTitle());
+        assertEquals(List.of("a", "b"), patched.getTags());
+    }
+
+    @Test
+    void createPost_rejectsSlugsTakenByFixedRoutes() {
+        assertThrows(IllegalArgumentException.class, () -> create("tags", "a"));
+        assertThrows(IllegalArgumentException.class, () -> create("summaries"));
+        assertEquals(0, tagRepository.count());
+    }
+
+    @Test
+    void getTagCloud_ordersByPostCountAndSkipsUnusedTags() {
+        create("one", "common", "rare");
+        create("two", "common");
+        create("three", "common", "gone");
+        blogPostService.deletePost("three");
+        tagService.onPostChanged(null);
+
+        List<TagCount> cloud = tagService.getTagCloud(10);
+
+        assertEquals(List.of(new TagCount("common", 2), new TagCount("rare", 1)), cloud);
+        assertEquals(1, tagService.getTagCloud(1).size());
+    }
+
+    @Test
+    void getPostsByTag_walksTaggedPostsNewestFirst() {
+        for (int i = 0; i < 7; i++) {
+            create("post-" + i, i % 2 == 0 ? "even" : "odd");
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PostPage page = tagService.getPostsByTag("Even", cursor, 3);
+            page.getItems().forEach(summary -> seen.add(summary.getSlug()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(2, pages);
+        assertEquals(List.of("post-6", "post-4", "post-2", "post-0"), seen);
+        assertTrue(tagService.getPostsByTag("unknown", null, 3).getItems().isEmpty());
+    }
+}
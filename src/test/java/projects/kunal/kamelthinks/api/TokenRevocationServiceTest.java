@@ -0,0 +1,121 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import projects.kunal.kamelthinks.api.model.RevokedToken;
+import projects.kunal.kamelthinks.api.model.User;
+import projects.kunal.kamelthinks.api.repository.RevokedTokenRepository;
+import projects.kunal.kamelthinks.api.repository.UserRepository;
+import projects.kunal.kamelthinks.api.security.TokenRevocationService;
+import projects.kunal.kamelthinks.api.security.VerifiedToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(TokenRevocationService.class)
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService revocations;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("camel");
+        user.setPassword("hash");
+        userRepository.save(user);
+    }
+
+    @Test
+    void revoke_rejectsOnlyThatToken() {
+        VerifiedToken revoked = token("camel", "jti-1", Instant.now());
+        VerifiedToken other = token("camel", "jti-2", Instant.now());
+
+        revocations.revoke(revoked);
+
+        assertTrue(revocations.isRevoked(revoked));
+        assertFalse(revocations.isRevoked(other));
+        assertTrue(revokedTokenRepository.existsById("jti-1"));
+    }
+
+    @Test
+    void revokeAllIssuedBefore_rejectsOlderTokensOnly() {
+        Instant cutoff = Instant.now();
+        VerifiedToken older = token("camel", "jti-old", cutoff.minusSeconds(10));
+        VerifiedToken newer = token("camel", "jti-new", cutoff.plusSeconds(10));
+
+        revocations.revokeAllIssuedBefore("camel", cutoff);
+
+        assertTrue(revocations.isRevoked(older));
+        assertFalse(revocations.isRevoked(newer));
+        assertFalse(revocations.isRevoked(token("dromedary", "jti-other", cutoff.minusSeconds(10))));
+    }
+
+    @Test
+    void revokeAllIssuedBefore_thenLoggingInAgainWithinTheSameSecond_yieldsAWorkingToken() {
+        Instant second = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant cutoff = second.plusMillis(100);
+        VerifiedToken before = token("camel", "jti-before", second.plusMillis(40));
+        VerifiedToken after = token("camel", "jti-after", second.plusMillis(101));
+
+        revocations.revokeAllIssuedBefore("camel", cutoff);
+
+        assertTrue(revocations.isRevoked(before));
+        assertTrue(revocations.isRevoked(token("camel", "jti-at", cutoff)));
+        assertFalse(revocations.isRevoked(after));
+
+        // The database keeps the cutoff's milliseconds too
+        TokenRevocationService restarted = new TokenRevocationService(revokedTokenRepository, userRepository,
+                1000, 0.001, 1000, Duration.ofSeconds(30), Duration.ofHours(1).toMillis());
+        restarted.rebuild();
+        assertTrue(restarted.isRevoked(before));
+        assertFalse(restarted.isRevoked(after));
+    }
+
+    @Test
+    void rebuild_restoresStateFromDatabase() {
+        Instant cutoff = Instant.now();
+        revocations.revoke(token("camel", "jti-1", cutoff));
+        revocations.revokeAllIssuedBefore("camel", cutoff);
+
+        // A freshly started instance knows nothing until it rebuilds
+        TokenRevocationService restarted = new TokenRevocationService(revokedTokenRepository, userRepository,
+                1000, 0.001, 1000, Duration.ofSeconds(30), Duration.ofHours(1).toMillis());
+        assertFalse(restarted.isRevoked(token("dromedary", "jti-1", cutoff)));
+
+        restarted.rebuild();
+
+        assertTrue(restarted.isRevoked(token("dromedary", "jti-1", cutoff)));
+        assertTrue(restarted.isRevoked(token("camel", "jti-2", cutoff.minusSeconds(10))));
+        assertFalse(restarted.isRevoked(token("camel", "jti-3", cutoff.plusSeconds(10))));
+    }
+
+    @Test
+    void rebuild_purgesExpiredRevocations() {
+        revokedTokenRepository.save(new RevokedToken("jti-expired", "camel",
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now().minusHours(2)));
+
+        revocations.rebuild();
+
+        assertFalse(revokedTokenRepository.existsById("jti-expired"));
+    }
+
+    private static VerifiedToken token(String subject, String id, Instant issuedAt) {
+        return new VerifiedToken(subject, Date.from(issuedAt), Date.from(issuedAt.plus(Duration.ofHours(1))), id);
+    }
+}
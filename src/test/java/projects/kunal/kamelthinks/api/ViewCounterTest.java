@@ -0,0 +1,83 @@
+package projects.kunal.kamelthinks.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import projects.kunal.kamelthinks.api.dto.PostViews;
+import projects.kunal.kamelthinks.api.model.BlogPost;
+import projects.kunal.kamelthinks.api.repository.BlogPostRepository;
+import projects.kunal.kamelthinks.api.service.ViewCounter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ViewCounter.class)
+class ViewCounterTest {
+
+    @Autowired
+    private ViewCounter viewCounter;
+
+    @Autowired
+    private BlogPostRepository blogPostRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<BlogPost> posts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            BlogPost post = new BlogPost();
+            post.setTitle("Post " + i);
+            post.setSlug("post-" + i);
+            post.setCreatedAt(LocalDateTime.now());
+            post.setUpdatedAt(LocalDateTime.now());
+            posts.add(blogPostRepository.saveAndFlush(post));
+        }
+    }
+
+    @Test
+    void flush_addsDeltasToTheTableAndRanksPosts() {
+        for (int i = 0; i < 5; i++) {
+            viewCounter.record(posts.get(1).getId());
+        }
+        viewCounter.record(posts.get(2).getId());
+
+        viewCounter.flush();
+        viewCounter.record(posts.get(2).getId());
+        viewCounter.flush();
+
+        assertEquals(5, persistedViews(posts.get(1)));
+        assertEquals(2, persistedViews(posts.get(2)));
+        assertEquals(0, persistedViews(posts.get(0)));
+
+        List<PostViews> top = viewCounter.top(10);
+        assertEquals(List.of("post-1", "post-2"), top.stream().map(PostViews::getSlug).toList());
+        assertEquals(5, top.get(0).getViews());
+    }
+
+    @Test
+    void entityUpdates_doNotOverwriteFlushedViews() {
+        viewCounter.record(posts.get(0).getId());
+        viewCounter.flush();
+
+        BlogPost post = blogPostRepository.findById(posts.get(0).getId()).orElseThrow();
+        post.setTitle("Renamed");
+        blogPostRepository.saveAndFlush(post);
+
+        assertEquals(1, persistedViews(post));
+        assertEquals(1, viewCounter.views(post.getId()));
+    }
+
+    private long persistedViews(BlogPost post) {
+        return jdbcTemplate.queryForObject("select views from blog_post where id = ?", Long.class, post.getId());
+    }
+}